@@ -0,0 +1,122 @@
+package com.abhi.contract_explainer.controller;
+
+import com.abhi.contract_explainer.model.StoredContract;
+import com.abhi.contract_explainer.store.ContractStore;
+import com.abhi.contract_explainer.store.ShardedContractStore;
+import com.abhi.contract_explainer.store.StoreUnavailableException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints used by ShardedContractStore; not meant for browser clients.
+ * Always registered (see ContractStoreConfig for why nothing here is conditional),
+ * but every endpoint answers 404 unless contract.store.mode=sharded.
+ *
+ * These run on the public port: when contract.store.sharded.secret is set,
+ * every request must carry it in the X-Cluster-Secret header (403 otherwise).
+ */
+@RestController
+@RequestMapping("/internal")
+public class ClusterController {
+
+    private final ContractStore contractStore;
+
+    public ClusterController(ContractStore contractStore) {
+        this.contractStore = contractStore;
+    }
+
+    // Another node asks for a contract this node owns.
+    // Current version only, unless history=true: /ask does not need the earlier versions.
+    @GetMapping("/contracts/{id}")
+    public ResponseEntity<StoredContract> getContract(
+            @RequestHeader(value = ShardedContractStore.SECRET_HEADER, required = false) String secret,
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean history) {
+        ShardedContractStore store = trustedStore(secret);
+
+        StoredContract contract = store.getLocal(id);
+        if (contract == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(history ? contract : withoutRevisions(contract));
+    }
+
+    // Another node stores (or hands over) a contract that it thinks this node owns.
+    // With expectedVersion: only if the stored version still matches, 409 otherwise.
+    // Not ours by our ring: passed on to the owner, or 421 if it was already passed on once.
+    @PutMapping("/contracts/{id}")
+    public ResponseEntity<Void> putContract(
+            @RequestHeader(value = ShardedContractStore.SECRET_HEADER, required = false) String secret,
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean handover,
+            @RequestParam(required = false) Integer expectedVersion,
+            @RequestParam(defaultValue = "false") boolean forwarded,
+            @RequestBody StoredContract contract) {
+        ShardedContractStore store = trustedStore(secret);
+
+        return switch (store.receiveWrite(id, contract, handover, expectedVersion, forwarded)) {
+            case STORED -> ResponseEntity.ok().build();
+            case VERSION_CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case NOT_OWNER -> ResponseEntity.status(421).build(); // Misdirected Request
+        };
+    }
+
+    // A node announces itself: add it to the ring and hand over its share.
+    // Fails (500) if the handover did not complete; the node retries the join.
+    @PostMapping("/cluster/join")
+    public Map<String, Object> join(
+            @RequestHeader(value = ShardedContractStore.SECRET_HEADER, required = false) String secret,
+            @RequestBody Map<String, String> request) {
+        ShardedContractStore store = trustedStore(secret);
+
+        int moved = store.addNode(request.get("url"));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("nodes", store.nodes());
+        response.put("moved", moved);
+        return response;
+    }
+
+    // Ring membership and how many contracts live here (also the liveness probe between nodes)
+    @GetMapping("/cluster/nodes")
+    public Map<String, Object> nodes(
+            @RequestHeader(value = ShardedContractStore.SECRET_HEADER, required = false) String secret) {
+        ShardedContractStore store = trustedStore(secret);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("self", store.getSelfUrl());
+        response.put("nodes", store.nodes());
+        response.put("localContracts", store.localCount());
+        return response;
+    }
+
+    // Passing a write on to its owner failed -> 503, the calling node retries or fails its request
+    @ExceptionHandler(StoreUnavailableException.class)
+    public ResponseEntity<Void> handleStoreUnavailable(StoreUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    private StoredContract withoutRevisions(StoredContract contract) {
+        StoredContract current = new StoredContract(contract.getFullText(), contract.getClauses());
+        current.setSummary(contract.getSummary());
+        current.setVersion(contract.getVersion());
+        return current;
+    }
+
+    // The sharded store if the caller sent the right secret;
+    // 404 when running with the local store, 403 for a wrong secret
+    private ShardedContractStore trustedStore(String secret) {
+        if (!(contractStore instanceof ShardedContractStore store)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (!store.isTrusted(secret)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing or wrong cluster secret");
+        }
+        return store;
+    }
+}
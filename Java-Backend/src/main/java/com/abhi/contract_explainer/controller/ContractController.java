@@ -6,15 +6,29 @@ import com.abhi.contract_explainer.model.UploadResponse;
 import com.abhi.contract_explainer.model.ClauseTextRequest;
 import com.abhi.contract_explainer.model.StoredContract;
 import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.ContractRevision;
+import com.abhi.contract_explainer.model.RevisionResponse;
+import com.abhi.contract_explainer.service.ClauseDiffService;
+import com.abhi.contract_explainer.service.ClauseExplanationService;
+import com.abhi.contract_explainer.service.ContractConflictException;
+import com.abhi.contract_explainer.service.ContractRevisionService;
+import com.abhi.contract_explainer.service.LlmOverloadedException;
+import com.abhi.contract_explainer.service.LlmScheduler;
 import com.abhi.contract_explainer.service.LlmService;
 import com.abhi.contract_explainer.service.PdfService;
+import com.abhi.contract_explainer.service.UploadsBusyException;
 import com.abhi.contract_explainer.service.ClauseClassifierService;
 import com.abhi.contract_explainer.service.ClauseService;
 import com.abhi.contract_explainer.service.ClauseSelectionService;
 import com.abhi.contract_explainer.store.ContractStore;
+import com.abhi.contract_explainer.store.StoreUnavailableException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -31,6 +45,10 @@ public class ContractController {
     private final ClauseClassifierService clauseClassifierService;
     private final ClauseService clauseService;
     private final ClauseSelectionService clauseSelectionService;
+    private final LlmScheduler llmScheduler;
+    private final ClauseExplanationService clauseExplanationService;
+    private final ClauseDiffService clauseDiffService;
+    private final ContractRevisionService contractRevisionService;
 
     // Constructor: Spring will automatically pass all required services here
     public ContractController(PdfService pdfService,
@@ -38,13 +56,21 @@ public class ContractController {
                               LlmService llmService,
                               ClauseClassifierService clauseClassifierService,
                               ClauseService clauseService,
-                              ClauseSelectionService clauseSelectionService) {
+                              ClauseSelectionService clauseSelectionService,
+                              LlmScheduler llmScheduler,
+                              ClauseExplanationService clauseExplanationService,
+                              ClauseDiffService clauseDiffService,
+                              ContractRevisionService contractRevisionService) {
         this.pdfService = pdfService;
         this.contractStore = contractStore;
         this.llmService = llmService;
         this.clauseClassifierService = clauseClassifierService;
         this.clauseService = clauseService;
         this.clauseSelectionService = clauseSelectionService;
+        this.llmScheduler = llmScheduler;
+        this.clauseExplanationService = clauseExplanationService;
+        this.clauseDiffService = clauseDiffService;
+        this.contractRevisionService = contractRevisionService;
     }
 
     // 1️⃣ Endpoint to upload a PDF
@@ -67,19 +93,24 @@ public class ContractController {
             String clauseId = "clause-" + index;
 
             Clause clause = new Clause(clauseId, label, clauseText);
+            clause.setHash(clauseDiffService.hash(clauseText)); // for diffing later revisions
             clauses.add(clause);
 
             index++;
         }
 
-        // d) build StoredContract with full text + all classified clauses
+        // d) get a summary for the contract from the LLM (uses fullText)
+        String summary = llmService.summarizeContract(fullText);
+
+        // e) build StoredContract with full text + all classified clauses + summary
         StoredContract storedContract = new StoredContract(fullText, clauses);
+        storedContract.setSummary(summary); // kept so revisions can update it incrementally
 
-        // e) save the StoredContract and get a contractId
+        // f) save the StoredContract and get a contractId
         String contractId = contractStore.save(storedContract);
 
-        // f) get a summary for the contract from the LLM (uses fullText)
-        String summary = llmService.summarizeContract(fullText);
+        // f2) queue background explanations for high-value clauses (if enabled)
+        clauseExplanationService.schedule(contractId, storedContract);
 
         // g) return contractId + summary as JSON
         return new UploadResponse(contractId, summary);
@@ -105,6 +136,17 @@ public class ContractController {
         List<Clause> clauses = storedContract.getClauses();
         Clause bestClause = clauseSelectionService.findBestClause(clauses, question);
 
+        // b2) Served from a precomputed explanation if the question is about that clause type
+        if (bestClause != null
+                && bestClause.getExplanation() != null
+                && clauseExplanationService.isPrecomputedLabel(bestClause.getLabel())
+                && clauseSelectionService.questionMatchesLabel(question, bestClause.getLabel())) {
+            AnswerResponse precomputed = new AnswerResponse(bestClause.getExplanation(),
+                    bestClause.getId(), bestClause.getLabel(), previewText(bestClause.getText()));
+            precomputed.setPrecomputed(true);
+            return precomputed;
+        }
+
         String contextText;
         String clauseId = null;
         String clauseLabel = null;
@@ -116,14 +158,8 @@ public class ContractController {
             clauseId = bestClause.getId();
             clauseLabel = bestClause.getLabel();
 
-            String fullClauseText = bestClause.getText();
-
-            // 🔹 Return only a preview of the clause text (e.g., first 400 characters)
-            if (fullClauseText != null && fullClauseText.length() > 400) {
-                clauseText = fullClauseText.substring(0, 400) + "...";
-            } else {
-                clauseText = fullClauseText;
-            }
+            // 🔹 Return only a preview of the clause text
+            clauseText = previewText(bestClause.getText());
         } else {
             // Fallback: use the full contract text if we couldn't pick a clause
             contextText = storedContract.getFullText();
@@ -138,7 +174,59 @@ public class ContractController {
         return new AnswerResponse(answer, clauseId, clauseLabel, clauseText);
     }
 
-    // 3️⃣ Debug endpoint to test the clause classifier from Java
+    // Preview of a clause text (first 400 characters)
+    private String previewText(String fullClauseText) {
+        if (fullClauseText != null && fullClauseText.length() > 400) {
+            return fullClauseText.substring(0, 400) + "...";
+        }
+        return fullClauseText;
+    }
+
+    // 3️⃣ Endpoint to upload a new version of a previously uploaded contract
+    @PostMapping(
+            value = "/{id}/revisions",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE
+    )
+    public RevisionResponse uploadRevision(@PathVariable String id,
+                                           @RequestParam("file") MultipartFile file) throws Exception {
+        StoredContract previous = contractStore.getWithHistory(id);
+        if (previous == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No contract found for id: " + id);
+        }
+
+        String fullText = pdfService.extractText(file);
+
+        // only added / changed clauses are reclassified and re-summarized
+        return contractRevisionService.ingestRevision(id, previous, fullText);
+    }
+
+    // Version history of a contract: current version + earlier versions (newest first)
+    @GetMapping("/{id}/revisions")
+    public List<Map<String, Object>> revisions(@PathVariable String id) {
+        StoredContract storedContract = contractStore.getWithHistory(id);
+        if (storedContract == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No contract found for id: " + id);
+        }
+
+        List<Map<String, Object>> history = new ArrayList<>();
+        history.add(revisionInfo(storedContract.getVersion(), storedContract.getClauses(), storedContract.getSummary()));
+        List<ContractRevision> revisions = storedContract.getRevisions();
+        for (int i = revisions.size() - 1; i >= 0; i--) {
+            ContractRevision revision = revisions.get(i);
+            history.add(revisionInfo(revision.getVersion(), revision.getClauses(), revision.getSummary()));
+        }
+        return history;
+    }
+
+    private Map<String, Object> revisionInfo(int version, List<Clause> clauses, String summary) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("version", version);
+        info.put("clauseCount", clauses == null ? 0 : clauses.size());
+        info.put("summary", summary);
+        return info;
+    }
+
+    // 4️⃣ Debug endpoint to test the clause classifier from Java
     @PostMapping("/debug/classify-clause")
     public Map<String, Object> classifyClause(@RequestBody ClauseTextRequest request) {
         String clauseText = request.getText();
@@ -149,4 +237,56 @@ public class ContractController {
         response.put("label", label);
         return response;
     }
+
+    // 5️⃣ Debug endpoint: queue depth / wait time per model and priority class
+    @GetMapping("/debug/llm-scheduler")
+    public Map<String, Object> llmSchedulerMetrics() {
+        return llmScheduler.metrics();
+    }
+
+    // LLM queue is full -> 429 so the client backs off instead of piling on
+    @ExceptionHandler(LlmOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleLlmOverloaded(LlmOverloadedException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+        body.put("priority", e.getPriority());
+        body.put("retryAfterSeconds", e.getRetryAfterSeconds());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    // Another revision of the same contract was saved first -> 409, re-upload against the new version
+    @ExceptionHandler(ContractConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleContractConflict(ContractConflictException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // The store node that owns the contract did not answer -> 503, not "no contract found"
+    @ExceptionHandler(StoreUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleStoreUnavailable(StoreUnavailableException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+        body.put("retryAfterSeconds", e.getRetryAfterSeconds());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    // Too many large PDFs being processed at once -> 429, the client retries later
+    @ExceptionHandler(UploadsBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleUploadsBusy(UploadsBusyException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+        body.put("retryAfterSeconds", e.getRetryAfterSeconds());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
 }
\ No newline at end of file
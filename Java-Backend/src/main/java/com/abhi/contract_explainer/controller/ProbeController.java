@@ -0,0 +1,41 @@
+package com.abhi.contract_explainer.controller;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Liveness / readiness probes for the orchestrator or load balancer.
+ * Readiness only turns 200 after StartupWarmup has finished.
+ */
+@RestController
+@RequestMapping("/probe")
+public class ProbeController {
+
+    private final ApplicationAvailability availability;
+
+    public ProbeController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    @GetMapping("/liveness")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        LivenessState state = availability.getLivenessState();
+        HttpStatus status = state == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", state));
+    }
+
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        ReadinessState state = availability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", state));
+    }
+}
@@ -8,6 +8,8 @@ package com.abhi.contract_explainer.model;
  *  - clauseId:    which clause we used as context (e.g. "clause-3")
  *  - clauseLabel: classifier label (e.g. "Termination For Convenience")
  *  - clauseText:  the actual contract text we used to answer
+ *  - precomputed: true if the answer is the clause explanation generated
+ *                 in the background after upload (no LLM call for this request)
  */
 public class AnswerResponse {
 
@@ -15,6 +17,7 @@ public class AnswerResponse {
     private String clauseId;
     private String clauseLabel;
     private String clauseText;
+    private boolean precomputed;
 
     // 🔹 No-args constructor: needed by Spring/Jackson
     public AnswerResponse() {
@@ -66,4 +69,12 @@ public class AnswerResponse {
     public void setClauseText(String clauseText) {
         this.clauseText = clauseText;
     }
+
+    public boolean isPrecomputed() {
+        return precomputed;
+    }
+
+    public void setPrecomputed(boolean precomputed) {
+        this.precomputed = precomputed;
+    }
 }
\ No newline at end of file
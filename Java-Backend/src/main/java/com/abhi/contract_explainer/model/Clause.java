@@ -12,6 +12,8 @@ public class Clause {
     private String id;      // "clause-1"
     private String label;   // classifier label: "Termination For Convenience"
     private String text;    // actual clause text from the contract
+    private String explanation; // plain-language explanation precomputed after upload (may be null)
+    private String hash;    // stable hash of the normalized text, used to diff revisions
 
     // No-args constructor for Jackson / Spring
     public Clause() {
@@ -49,4 +51,20 @@ public class Clause {
     public void setText(String text) {
         this.text = text;
     }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.abhi.contract_explainer.model;
+
+/**
+ * One entry of the clause-level change report for a contract revision.
+ *
+ * Example:
+ *  - type: CHANGED
+ *  - oldClauseId: "clause-4"   (null for ADDED)
+ *  - newClauseId: "clause-5"   (null for REMOVED)
+ *  - label: "Cap On Liability" (label of the new clause, or the old one for REMOVED)
+ */
+public class ClauseChange {
+
+    public enum Type {
+        ADDED,
+        CHANGED,
+        REMOVED
+    }
+
+    private Type type;
+    private String oldClauseId;
+    private String newClauseId;
+    private String label;
+
+    // No-args constructor for Jackson / Spring
+    public ClauseChange() {
+    }
+
+    public ClauseChange(Type type, String oldClauseId, String newClauseId, String label) {
+        this.type = type;
+        this.oldClauseId = oldClauseId;
+        this.newClauseId = newClauseId;
+        this.label = label;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getOldClauseId() {
+        return oldClauseId;
+    }
+
+    public void setOldClauseId(String oldClauseId) {
+        this.oldClauseId = oldClauseId;
+    }
+
+    public String getNewClauseId() {
+        return newClauseId;
+    }
+
+    public void setNewClauseId(String newClauseId) {
+        this.newClauseId = newClauseId;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,51 @@
+package com.abhi.contract_explainer.model;
+
+import java.util.List;
+
+/**
+ * One earlier version of a contract, kept in StoredContract.revisions.
+ *
+ * - version: 1 for the original upload, then 2, 3, ...
+ * - clauses: the clauses (with labels) of that version
+ * - summary: the summary of that version
+ */
+public class ContractRevision {
+
+    private int version;
+    private List<Clause> clauses;
+    private String summary;
+
+    // No-args constructor for Jackson / Spring
+    public ContractRevision() {
+    }
+
+    public ContractRevision(int version, List<Clause> clauses, String summary) {
+        this.version = version;
+        this.clauses = clauses;
+        this.summary = summary;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public List<Clause> getClauses() {
+        return clauses;
+    }
+
+    public void setClauses(List<Clause> clauses) {
+        this.clauses = clauses;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+}
@@ -0,0 +1,56 @@
+package com.abhi.contract_explainer.model;
+
+import java.util.List;
+
+/**
+ * Response for the /{id}/revisions upload.
+ *
+ *  - contractId / version: the contract and its new version number
+ *  - summary:              summary of the new version
+ *  - changes:              added / changed / removed clauses
+ *  - unchangedClauses:     clauses reused as-is (no classifier call)
+ *  - reclassifiedClauses:  clauses sent to the classifier
+ */
+public class RevisionResponse {
+
+    private String contractId;
+    private int version;
+    private String summary;
+    private List<ClauseChange> changes;
+    private int unchangedClauses;
+    private int reclassifiedClauses;
+
+    public RevisionResponse(String contractId, int version, String summary,
+                            List<ClauseChange> changes, int unchangedClauses, int reclassifiedClauses) {
+        this.contractId = contractId;
+        this.version = version;
+        this.summary = summary;
+        this.changes = changes;
+        this.unchangedClauses = unchangedClauses;
+        this.reclassifiedClauses = reclassifiedClauses;
+    }
+
+    public String getContractId() {
+        return contractId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public List<ClauseChange> getChanges() {
+        return changes;
+    }
+
+    public int getUnchangedClauses() {
+        return unchangedClauses;
+    }
+
+    public int getReclassifiedClauses() {
+        return reclassifiedClauses;
+    }
+}
@@ -1,5 +1,6 @@
 package com.abhi.contract_explainer.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -7,11 +8,17 @@ import java.util.List;
  *
  * - fullText: the entire contract text as one big string
  * - clauses:  the list of clauses we extracted and classified from this contract
+ * - summary:  LLM summary of this version
+ * - version:  1 for the original upload, +1 for every revision upload
+ * - revisions: earlier versions (clauses + summary), oldest first
  */
 public class StoredContract {
 
     private String fullText;      // Whole contract text
     private List<Clause> clauses; // All clauses (id + label + text)
+    private String summary;
+    private int version = 1;
+    private List<ContractRevision> revisions = new ArrayList<>();
 
     // 🔹 No-args constructor: needed by Spring/Jackson
     public StoredContract() {
@@ -40,4 +47,28 @@ public class StoredContract {
     public void setClauses(List<Clause> clauses) {
         this.clauses = clauses;
     }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public List<ContractRevision> getRevisions() {
+        return revisions;
+    }
+
+    public void setRevisions(List<ContractRevision> revisions) {
+        this.revisions = revisions;
+    }
 }
\ No newline at end of file
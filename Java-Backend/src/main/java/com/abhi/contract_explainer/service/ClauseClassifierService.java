@@ -1,14 +1,14 @@
 package com.abhi.contract_explainer.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 
 @Service
 public class ClauseClassifierService {
@@ -29,36 +29,39 @@ public class ClauseClassifierService {
      */
     public String classifyClause(String clauseText) {
         try {
-            // JSON body: { "text": "clause..." }
-            ObjectNode body = objectMapper.createObjectNode();
-            body.put("text", clauseText);
-
-            String requestBody = objectMapper.writeValueAsString(body);
+            // JSON body: { "text": "clause..." }, streamed into the request publisher
+            HttpRequest.BodyPublisher body = StreamingJson.bodyPublisher(objectMapper.getFactory(), json -> {
+                json.writeStartObject();
+                json.writeStringField("text", clauseText);
+                json.writeEndObject();
+            });
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(CLASSIFIER_URL))
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .POST(body)
                     .build();
 
-            HttpResponse<String> response = httpClient.send(
+            HttpResponse<InputStream> response = httpClient.send(
                     request,
-                    HttpResponse.BodyHandlers.ofString()
+                    HttpResponse.BodyHandlers.ofInputStream()
             );
 
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Classifier API error: HTTP "
-                        + response.statusCode() + " - " + response.body());
-            }
+            try (InputStream responseBody = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new RuntimeException("Classifier API error: HTTP "
+                            + response.statusCode() + " - "
+                            + new String(responseBody.readAllBytes(), StandardCharsets.UTF_8));
+                }
 
-            // Response: { "label": "...", "scores": { ... } }
-            JsonNode json = objectMapper.readTree(response.body());
-            JsonNode labelNode = json.get("label");
-            if (labelNode == null) {
-                throw new RuntimeException("Classifier API response has no 'label': " + response.body());
-            }
+                // Response: { "label": "...", "scores": { ... } } - we only need "label"
+                String label = StreamingJson.readText(objectMapper.getFactory(), responseBody, "label");
+                if (label == null) {
+                    throw new RuntimeException("Classifier API response has no 'label'");
+                }
 
-            return labelNode.asText();
+                return label;
+            }
 
         } catch (Exception e) {
             throw new RuntimeException("Error calling Clause Classifier API", e);
@@ -0,0 +1,191 @@
+package com.abhi.contract_explainer.service;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.ClauseChange;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Diffs the clauses of a stored contract against the clause texts of a new revision.
+ *
+ * Clauses are compared by a stable hash of their whitespace-normalized text:
+ *  - the longest common subsequence of hashes = UNCHANGED clauses (kept in order)
+ *  - between two unchanged clauses, old and new clauses are paired up in order
+ *    as CHANGED; leftovers are ADDED (new side) or REMOVED (old side)
+ *
+ * Memory: the common prefix and suffix (most of a typical new draft) are
+ * matched directly, and the LCS only runs on the part in between, keeping two
+ * rows of lengths plus one bit per cell to walk back through. A 3000 x 3000
+ * clause middle costs about 1 MB, not the 36 MB of a full int table.
+ */
+@Service
+public class ClauseDiffService {
+
+    /**
+     * One step of the diff, in new-revision order (REMOVED entries sit where
+     * the old clause used to be).
+     */
+    public static final class Entry {
+        private final ClauseChange.Type type; // null = unchanged
+        private final Clause oldClause;       // null for ADDED
+        private final String newText;         // null for REMOVED
+        private final String newHash;         // null for REMOVED
+
+        Entry(ClauseChange.Type type, Clause oldClause, String newText, String newHash) {
+            this.type = type;
+            this.oldClause = oldClause;
+            this.newText = newText;
+            this.newHash = newHash;
+        }
+
+        public ClauseChange.Type getType() {
+            return type;
+        }
+
+        public Clause getOldClause() {
+            return oldClause;
+        }
+
+        public String getNewText() {
+            return newText;
+        }
+
+        public String getNewHash() {
+            return newHash;
+        }
+    }
+
+    /**
+     * Stable hash of a clause: SHA-256 of the text with whitespace collapsed,
+     * so re-flowed lines from PDF extraction do not count as a change.
+     */
+    public String hash(String clauseText) {
+        String normalized = clauseText == null ? "" : clauseText.strip().replaceAll("\\s+", " ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public List<Entry> diff(List<Clause> oldClauses, List<String> newTexts) {
+        int n = oldClauses.size();
+        int m = newTexts.size();
+
+        String[] oldHashes = new String[n];
+        for (int i = 0; i < n; i++) {
+            Clause clause = oldClauses.get(i);
+            oldHashes[i] = clause.getHash() != null ? clause.getHash() : hash(clause.getText());
+        }
+        String[] newHashes = new String[m];
+        for (int j = 0; j < m; j++) {
+            newHashes[j] = hash(newTexts.get(j));
+        }
+
+        // Common prefix and suffix are unchanged
+        int prefix = 0;
+        while (prefix < n && prefix < m && oldHashes[prefix].equals(newHashes[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && oldHashes[n - 1 - suffix].equals(newHashes[m - 1 - suffix])) {
+            suffix++;
+        }
+        int oldEnd = n - suffix;
+        int newEnd = m - suffix;
+
+        List<Entry> result = new ArrayList<>();
+        for (int k = 0; k < prefix; k++) {
+            result.add(new Entry(null, oldClauses.get(k), newTexts.get(k), newHashes[k]));
+        }
+
+        // LCS of the middle part: skipOld bit set = dropping the old clause keeps the LCS longest
+        int width = newEnd - prefix;
+        BitSet skipOld = middleLcs(oldHashes, newHashes, prefix, oldEnd, prefix, newEnd);
+
+        List<Integer> gapOld = new ArrayList<>();
+        List<Integer> gapNew = new ArrayList<>();
+        int i = prefix;
+        int j = prefix;
+        while (i < oldEnd || j < newEnd) {
+            if (i < oldEnd && j < newEnd && oldHashes[i].equals(newHashes[j])) {
+                flushGap(result, gapOld, gapNew, oldClauses, newTexts, newHashes);
+                result.add(new Entry(null, oldClauses.get(i), newTexts.get(j), newHashes[j]));
+                i++;
+                j++;
+            } else if (j == newEnd || (i < oldEnd && skipOld.get((i - prefix) * width + (j - prefix)))) {
+                gapOld.add(i++);
+            } else {
+                gapNew.add(j++);
+            }
+        }
+        flushGap(result, gapOld, gapNew, oldClauses, newTexts, newHashes);
+
+        for (int k = 0; k < suffix; k++) {
+            int newIndex = newEnd + k;
+            result.add(new Entry(null, oldClauses.get(oldEnd + k), newTexts.get(newIndex), newHashes[newIndex]));
+        }
+        return result;
+    }
+
+    // Rows of lcs[i][j] = LCS length of oldHashes[i..oldEnd) and newHashes[j..newEnd),
+    // computed bottom-up keeping only the row below; returns the skip-old decision per cell
+    private BitSet middleLcs(String[] oldHashes, String[] newHashes,
+                             int oldStart, int oldEnd, int newStart, int newEnd) {
+        int height = oldEnd - oldStart;
+        int width = newEnd - newStart;
+        if ((long) height * width > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Revision too large to diff: "
+                    + height + " x " + width + " changed clauses");
+        }
+
+        BitSet skipOld = new BitSet(height * width);
+        int[] below = new int[width + 1];
+        int[] current = new int[width + 1];
+        for (int i = height - 1; i >= 0; i--) {
+            current[width] = 0;
+            for (int j = width - 1; j >= 0; j--) {
+                if (oldHashes[oldStart + i].equals(newHashes[newStart + j])) {
+                    current[j] = below[j + 1] + 1;
+                } else if (below[j] >= current[j + 1]) {
+                    current[j] = below[j];
+                    skipOld.set(i * width + j);
+                } else {
+                    current[j] = current[j + 1];
+                }
+            }
+            int[] swap = below;
+            below = current;
+            current = swap;
+        }
+        return skipOld;
+    }
+
+    private void flushGap(List<Entry> result, List<Integer> gapOld, List<Integer> gapNew,
+                          List<Clause> oldClauses, List<String> newTexts, String[] newHashes) {
+        int paired = Math.min(gapOld.size(), gapNew.size());
+        for (int k = 0; k < paired; k++) {
+            int j = gapNew.get(k);
+            result.add(new Entry(ClauseChange.Type.CHANGED, oldClauses.get(gapOld.get(k)), newTexts.get(j), newHashes[j]));
+        }
+        for (int k = paired; k < gapNew.size(); k++) {
+            int j = gapNew.get(k);
+            result.add(new Entry(ClauseChange.Type.ADDED, null, newTexts.get(j), newHashes[j]));
+        }
+        for (int k = paired; k < gapOld.size(); k++) {
+            result.add(new Entry(ClauseChange.Type.REMOVED, oldClauses.get(gapOld.get(k)), null, null));
+        }
+        gapOld.clear();
+        gapNew.clear();
+    }
+}
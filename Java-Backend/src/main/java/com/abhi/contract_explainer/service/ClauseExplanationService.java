@@ -0,0 +1,167 @@
+package com.abhi.contract_explainer.service;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.abhi.contract_explainer.store.ContractStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Optional background stage that runs after /upload and pre-generates
+ * plain-language explanations for high-value clauses (by classifier label).
+ *
+ * - One low-priority worker thread, fed by a bounded queue of contracts
+ *   (when the queue is full, new contracts are simply not precomputed)
+ * - Before each clause the worker waits until the LLM is idle, and the call
+ *   itself runs as LlmPriority.BACKGROUND, so /ask and summaries go first
+ * - At most max-clauses-per-contract explanations per contract
+ * - Explanations are filled in on a copy of the contract, which replaces the
+ *   stored one via ContractStore.updateIfVersion (skipped if a newer revision
+ *   was saved meanwhile); the instance /ask is reading is never modified
+ *
+ * Configuration (application.properties):
+ *  - precompute.explanations.enabled
+ *  - precompute.explanations.labels                   comma-separated labels
+ *  - precompute.explanations.max-clauses-per-contract
+ *  - precompute.explanations.max-pending-contracts
+ *  - precompute.explanations.idle-poll-millis
+ */
+@Service
+public class ClauseExplanationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClauseExplanationService.class);
+
+    private final LlmService llmService;
+    private final ContractStore contractStore;
+    private final boolean enabled;
+    private final Set<String> labels;
+    private final int maxClausesPerContract;
+    private final long idlePollMillis;
+    private final ThreadPoolExecutor executor;
+
+    public ClauseExplanationService(LlmService llmService,
+                                    ContractStore contractStore,
+                                    @Value("${precompute.explanations.enabled:false}") boolean enabled,
+                                    @Value("${precompute.explanations.labels:}") String labels,
+                                    @Value("${precompute.explanations.max-clauses-per-contract:5}") int maxClausesPerContract,
+                                    @Value("${precompute.explanations.max-pending-contracts:20}") int maxPendingContracts,
+                                    @Value("${precompute.explanations.idle-poll-millis:500}") long idlePollMillis) {
+        this.llmService = llmService;
+        this.contractStore = contractStore;
+        this.enabled = enabled;
+        this.labels = Arrays.stream(labels.split(","))
+                .map(String::trim)
+                .filter(label -> !label.isEmpty())
+                .collect(Collectors.toSet());
+        this.maxClausesPerContract = maxClausesPerContract;
+        this.idlePollMillis = idlePollMillis;
+
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPendingContracts)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "clause-explanation-precompute");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Is this label one we precompute explanations for?
+     */
+    public boolean isPrecomputedLabel(String label) {
+        return enabled && label != null && labels.contains(label);
+    }
+
+    /**
+     * Queue a freshly saved contract for background precomputation.
+     * Never blocks the upload request.
+     */
+    public void schedule(String contractId, StoredContract contract) {
+        if (!enabled || labels.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> precompute(contractId, contract));
+        } catch (RejectedExecutionException e) {
+            log.debug("Precompute queue full, skipping contract {}", contractId);
+        }
+    }
+
+    // Package-private so tests can run one contract synchronously
+    void precompute(String contractId, StoredContract contract) {
+        // Work on copies: `contract` may be the very instance /ask threads are reading
+        List<Clause> clauses = new ArrayList<>();
+        for (Clause clause : contract.getClauses()) {
+            clauses.add(copyOf(clause));
+        }
+
+        int done = 0;
+        for (Clause clause : clauses) {
+            if (done >= maxClausesPerContract) {
+                break;
+            }
+            if (!labels.contains(clause.getLabel()) || clause.getExplanation() != null) {
+                continue;
+            }
+
+            try {
+                waitUntilLlmIdle();
+                clause.setExplanation(llmService.explainClause(clause.getLabel(), clause.getText()));
+                done++;
+            } catch (LlmOverloadedException e) {
+                // Interactive traffic picked up again: stop, what we have is kept
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Could not precompute explanation for {} of contract {}", clause.getId(), contractId, e);
+            }
+        }
+
+        if (done == 0) {
+            return;
+        }
+
+        // Publish as a new StoredContract through the store, and only if no newer
+        // revision was stored in the meantime (checked atomically by the store)
+        StoredContract explained = new StoredContract(contract.getFullText(), clauses);
+        explained.setSummary(contract.getSummary());
+        explained.setVersion(contract.getVersion());
+        explained.setRevisions(contract.getRevisions());
+        contractStore.updateIfVersion(contractId, contract.getVersion(), explained);
+    }
+
+    private static Clause copyOf(Clause clause) {
+        Clause copy = new Clause(clause.getId(), clause.getLabel(), clause.getText());
+        copy.setExplanation(clause.getExplanation());
+        copy.setHash(clause.getHash());
+        return copy;
+    }
+
+    private void waitUntilLlmIdle() throws InterruptedException {
+        while (!llmService.isIdle()) {
+            Thread.sleep(idlePollMillis);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
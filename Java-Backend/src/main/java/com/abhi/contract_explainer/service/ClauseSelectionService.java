@@ -1,12 +1,18 @@
 package com.abhi.contract_explainer.service;
 
 import com.abhi.contract_explainer.model.Clause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Selects the "best" clause for a given user question.
@@ -15,10 +21,45 @@ import java.util.Set;
  *  - Split the question into keywords (lowercase words, length >= 3)
  *  - For each clause, count how many of those keywords appear in the clause text
  *  - Pick the clause with the highest overlap score
+ *
+ * Configuration (application.properties):
+ *  - precompute.explanations.keywords.<label>   comma-separated words / phrases
+ *    that show a question is about that label; <label> is the label in lower
+ *    case with dashes, e.g. "Cap On Liability" -> cap-on-liability
  */
 @Service
 public class ClauseSelectionService {
 
+    private static final Logger log = LoggerFactory.getLogger(ClauseSelectionService.class);
+
+    // Used when precompute.explanations.keywords.<label> is not set
+    private static final Map<String, List<String>> DEFAULT_LABEL_KEYWORDS = Map.of(
+            "Termination For Convenience", List.of("terminate", "termination", "cancel", "cancelled",
+                    "canceled", "cancellation", "end the agreement", "end the contract", "get out of",
+                    "walk away", "convenience"),
+            "Cap On Liability", List.of("liability", "liabilities", "liable", "damages", "cap on", "capped",
+                    "limit of liability", "limitation of liability"),
+            "Non-Compete", List.of("compete", "competitor", "competition", "non-compete",
+                    "noncompete", "rival")
+    );
+
+    private static final String[] SUFFIXES = {"ions", "ion", "ing", "ed", "es", "s", "e"};
+
+    private final Environment environment;
+    private final Map<String, List<String>> labelKeywords = new ConcurrentHashMap<>();
+
+    public ClauseSelectionService(Environment environment) {
+        this.environment = environment;
+        // A precomputed label without keywords never matches a question, so its
+        // explanations would be generated but never served
+        for (String label : environment.getProperty("precompute.explanations.labels", "").split(",")) {
+            if (!label.isBlank() && keywordsFor(label.trim()).isEmpty()) {
+                log.warn("No precompute.explanations.keywords.{} set, precomputed '{}' explanations will not be served",
+                        keywordKey(label.trim()), label.trim());
+            }
+        }
+    }
+
     /**
      * Find the most relevant clause for the given question.
      *
@@ -61,6 +102,73 @@ public class ClauseSelectionService {
         return bestClause;
     }
 
+    /**
+     * Does the question talk about the clause's classifier label?
+     * E.g. "Can I terminate early?" matches "Termination For Convenience",
+     * "What compensation do I get?" does not match "Non-Compete".
+     *
+     * Only labels with a keyword list (precompute.explanations.keywords.<label>
+     * or the built-in defaults) can match; for any other label this is false,
+     * since the label's own words are too loose ("Renewal Term" vs "terms").
+     * Matching is on whole words after cutting a few common endings
+     * (terminate / terminated / termination), and multi-word keywords must
+     * appear as a phrase.
+     */
+    public boolean questionMatchesLabel(String question, String label) {
+        if (question == null || label == null) {
+            return false;
+        }
+
+        String questionStems = " " + String.join(" ", stems(question)) + " ";
+
+        for (String keyword : keywordsFor(label)) {
+            if (questionStems.contains(" " + String.join(" ", stems(keyword)) + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> keywordsFor(String label) {
+        return labelKeywords.computeIfAbsent(label, key -> {
+            String configured = environment.getProperty(keywordKey(key));
+            if (configured == null) {
+                return DEFAULT_LABEL_KEYWORDS.getOrDefault(key, List.of());
+            }
+            return Arrays.stream(configured.split(","))
+                    .map(String::trim)
+                    .filter(keyword -> !keyword.isEmpty())
+                    .toList();
+        });
+    }
+
+    // "Cap On Liability" -> precompute.explanations.keywords.cap-on-liability
+    private static String keywordKey(String label) {
+        return "precompute.explanations.keywords."
+                + label.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+
+    // Lowercase words of the text, each cut down by stem()
+    private List<String> stems(String text) {
+        List<String> stems = new ArrayList<>();
+        for (String token : text.toLowerCase().split("\\W+")) {
+            if (!token.isEmpty()) {
+                stems.add(stem(token));
+            }
+        }
+        return stems;
+    }
+
+    // Cut one common ending, keeping at least 4 letters: terminated / termination -> terminat
+    private String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= 4) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
     /**
      * Extract keywords from the question: lowercase, only words length >= 3.
      */
@@ -0,0 +1,16 @@
+package com.abhi.contract_explainer.service;
+
+/**
+ * Thrown by ContractRevisionService when the contract was changed by another
+ * request (e.g. a second revision upload) while this revision was being built.
+ *
+ * The controller turns this into HTTP 409; the client re-uploads against the
+ * new current version.
+ */
+public class ContractConflictException extends RuntimeException {
+
+    public ContractConflictException(String contractId, int expectedVersion) {
+        super("Contract " + contractId + " is no longer at version " + expectedVersion
+                + ", another revision was saved first");
+    }
+}
@@ -0,0 +1,155 @@
+package com.abhi.contract_explainer.service;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.ClauseChange;
+import com.abhi.contract_explainer.model.ContractRevision;
+import com.abhi.contract_explainer.model.RevisionResponse;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.abhi.contract_explainer.store.ContractStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingests a new version of an existing contract incrementally.
+ *
+ * - Diff the new clause list against the stored clauses (ClauseDiffService)
+ * - Unchanged clauses keep their label and precomputed explanation:
+ *   only added / changed clauses go to the classifier
+ * - The summary is updated from the previous summary + the changed clauses,
+ *   or re-done from the full text when most of the contract changed
+ * - The previous version is pushed onto StoredContract.revisions
+ * - Saved only if the stored version is still the one the revision was
+ *   built from; otherwise ContractConflictException (-> HTTP 409)
+ *
+ * Configuration (application.properties):
+ *  - contract.revisions.max-history            earlier versions kept per contract
+ *  - contract.revisions.full-resummarize-ratio share of changed clauses above
+ *                                              which the summary is redone from scratch
+ */
+@Service
+public class ContractRevisionService {
+
+    private final ClauseService clauseService;
+    private final ClauseDiffService clauseDiffService;
+    private final ClauseClassifierService clauseClassifierService;
+    private final LlmService llmService;
+    private final ContractStore contractStore;
+    private final ClauseExplanationService clauseExplanationService;
+    private final int maxHistory;
+    private final double fullResummarizeRatio;
+
+    public ContractRevisionService(ClauseService clauseService,
+                                   ClauseDiffService clauseDiffService,
+                                   ClauseClassifierService clauseClassifierService,
+                                   LlmService llmService,
+                                   ContractStore contractStore,
+                                   ClauseExplanationService clauseExplanationService,
+                                   @Value("${contract.revisions.max-history:20}") int maxHistory,
+                                   @Value("${contract.revisions.full-resummarize-ratio:0.5}") double fullResummarizeRatio) {
+        this.clauseService = clauseService;
+        this.clauseDiffService = clauseDiffService;
+        this.clauseClassifierService = clauseClassifierService;
+        this.llmService = llmService;
+        this.contractStore = contractStore;
+        this.clauseExplanationService = clauseExplanationService;
+        this.maxHistory = maxHistory;
+        this.fullResummarizeRatio = fullResummarizeRatio;
+    }
+
+    /**
+     * Build and save the next version of the given contract.
+     *
+     * @param contractId id of the stored contract
+     * @param previous   the currently stored version, with history (ContractStore.getWithHistory)
+     * @param fullText   text extracted from the new revision
+     * @return new version number, summary and clause-level change report
+     */
+    public RevisionResponse ingestRevision(String contractId, StoredContract previous, String fullText) {
+        List<String> clauseTexts = clauseService.splitIntoClauses(fullText);
+        List<ClauseDiffService.Entry> diff = clauseDiffService.diff(previous.getClauses(), clauseTexts);
+
+        List<Clause> clauses = new ArrayList<>();
+        List<ClauseChange> changes = new ArrayList<>();
+        StringBuilder changedText = new StringBuilder();
+        int unchanged = 0;
+        int reclassified = 0;
+        int index = 1;
+
+        for (ClauseDiffService.Entry entry : diff) {
+            Clause old = entry.getOldClause();
+
+            if (entry.getType() == ClauseChange.Type.REMOVED) {
+                changes.add(new ClauseChange(ClauseChange.Type.REMOVED, old.getId(), null, old.getLabel()));
+                appendChange(changedText, "REMOVED", old.getLabel(), old.getText(), null);
+                continue;
+            }
+
+            String clauseId = "clause-" + index;
+            index++;
+
+            Clause clause;
+            if (entry.getType() == null) {
+                // Same text as before: reuse label + explanation, no classifier call
+                clause = new Clause(clauseId, old.getLabel(), entry.getNewText());
+                clause.setExplanation(old.getExplanation());
+                unchanged++;
+            } else {
+                String label = clauseClassifierService.classifyClause(entry.getNewText());
+                clause = new Clause(clauseId, label, entry.getNewText());
+                reclassified++;
+
+                changes.add(new ClauseChange(entry.getType(), old == null ? null : old.getId(), clauseId, label));
+                appendChange(changedText, entry.getType().name(), label,
+                        old == null ? null : old.getText(), entry.getNewText());
+            }
+            clause.setHash(entry.getNewHash());
+            clauses.add(clause);
+        }
+
+        StoredContract next = new StoredContract(fullText, clauses);
+        next.setVersion(previous.getVersion() + 1);
+        next.setSummary(summarize(previous, fullText, changes.size(), clauses.size(), changedText));
+
+        List<ContractRevision> revisions = new ArrayList<>(previous.getRevisions());
+        revisions.add(new ContractRevision(previous.getVersion(), previous.getClauses(), previous.getSummary()));
+        while (revisions.size() > maxHistory) {
+            revisions.remove(0);
+        }
+        next.setRevisions(revisions);
+
+        // Only if nobody saved another version since we read `previous`
+        if (!contractStore.updateIfVersion(contractId, previous.getVersion(), next)) {
+            throw new ContractConflictException(contractId, previous.getVersion());
+        }
+
+        // explanations for new / changed high-value clauses (unchanged ones kept theirs)
+        clauseExplanationService.schedule(contractId, next);
+
+        return new RevisionResponse(contractId, next.getVersion(), next.getSummary(),
+                changes, unchanged, reclassified);
+    }
+
+    private String summarize(StoredContract previous, String fullText, int changeCount, int clauseCount,
+                             StringBuilder changedText) {
+        if (changeCount == 0 && previous.getSummary() != null) {
+            return previous.getSummary();
+        }
+        if (previous.getSummary() == null || changeCount > fullResummarizeRatio * Math.max(1, clauseCount)) {
+            return llmService.summarizeContract(fullText);
+        }
+        return llmService.updateSummary(previous.getSummary(), changedText.toString());
+    }
+
+    private void appendChange(StringBuilder out, String type, String label, String before, String after) {
+        out.append(type).append(" clause (").append(label).append("):\n");
+        if (before != null && after != null) {
+            out.append("Before:\n").append(before).append("\nAfter:\n").append(after);
+        } else {
+            out.append(before != null ? before : after);
+        }
+        out.append("\n\n");
+    }
+}
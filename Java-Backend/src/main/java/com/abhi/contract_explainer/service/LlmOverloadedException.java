@@ -0,0 +1,27 @@
+package com.abhi.contract_explainer.service;
+
+/**
+ * Thrown by the LlmScheduler when a call is rejected because the queue
+ * for its priority class is already full.
+ *
+ * The controller turns this into HTTP 429 with a Retry-After header.
+ */
+public class LlmOverloadedException extends RuntimeException {
+
+    private final LlmPriority priority;
+    private final long retryAfterSeconds;
+
+    public LlmOverloadedException(String model, LlmPriority priority, long retryAfterSeconds) {
+        super("LLM '" + model + "' is overloaded, rejected " + priority + " call");
+        this.priority = priority;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public LlmPriority getPriority() {
+        return priority;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.abhi.contract_explainer.service;
+
+/**
+ * Priority classes for calls that go through the LlmScheduler.
+ *
+ * Declaration order IS the priority order:
+ *  - INTERACTIVE: /ask questions, a user is waiting on the answer
+ *  - SUMMARY:     contract summaries produced during /upload
+ *  - BACKGROUND:  work nobody is actively waiting for
+ */
+public enum LlmPriority {
+    INTERACTIVE,
+    SUMMARY,
+    BACKGROUND
+}
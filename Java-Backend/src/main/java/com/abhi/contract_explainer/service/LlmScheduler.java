@@ -0,0 +1,253 @@
+package com.abhi.contract_explainer.service;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Central gate in front of every LLM call.
+ *
+ * Each model gets its own "lane":
+ *  - at most max-concurrency calls run against the model at the same time
+ *  - everyone else waits in a queue ordered by LlmPriority, then arrival order
+ *  - every priority class has its own queue-depth limit; when it is full the
+ *    call is rejected straight away with LlmOverloadedException (-> HTTP 429)
+ *
+ * Configuration (application.properties):
+ *  - llm.scheduler.max-concurrency                  default for every model
+ *  - llm.scheduler.models.<model>.max-concurrency   override for one model
+ *  - llm.scheduler.queue-depth.interactive|summary|background
+ */
+@Service
+public class LlmScheduler {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 1;
+
+    private static final Map<LlmPriority, Integer> DEFAULT_QUEUE_DEPTH = Map.of(
+            LlmPriority.INTERACTIVE, 32,
+            LlmPriority.SUMMARY, 8,
+            LlmPriority.BACKGROUND, 4
+    );
+
+    private final Environment environment;
+    private final Map<LlmPriority, Integer> queueDepthLimits = new EnumMap<>(LlmPriority.class);
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    // Test hook: run at the start of a release, while the lane's monitor is held
+    volatile Runnable beforeRelease;
+
+    public LlmScheduler(Environment environment) {
+        this.environment = environment;
+        for (LlmPriority priority : LlmPriority.values()) {
+            String key = "llm.scheduler.queue-depth." + priority.name().toLowerCase();
+            queueDepthLimits.put(priority,
+                    environment.getProperty(key, Integer.class, DEFAULT_QUEUE_DEPTH.get(priority)));
+        }
+    }
+
+    /**
+     * Run the given LLM call once a slot for the model is free.
+     * Blocks the calling thread while queued.
+     *
+     * @throws LlmOverloadedException if the queue for this priority is full
+     */
+    public <T> T submit(String model, LlmPriority priority, Supplier<T> call) {
+        Lane lane = lanes.computeIfAbsent(model, this::newLane);
+
+        lane.acquire(priority);
+        long startNanos = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            lane.release(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * True if nothing is running or queued for the model right now.
+     * Used by background work that should only start when the LLM is free.
+     */
+    public boolean isIdle(String model) {
+        Lane lane = lanes.get(model);
+        return lane == null || lane.isIdle();
+    }
+
+    /**
+     * Snapshot of queue depth, wait time and rejection counters per model,
+     * served by the /debug/llm-scheduler endpoint.
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Lane> entry : lanes.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().metrics());
+        }
+        return result;
+    }
+
+    private Lane newLane(String model) {
+        int maxConcurrency = environment.getProperty(
+                "llm.scheduler.models." + model + ".max-concurrency", Integer.class,
+                environment.getProperty("llm.scheduler.max-concurrency", Integer.class, DEFAULT_MAX_CONCURRENCY));
+        return new Lane(model, Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * One waiting call. Ordered by priority first, then FIFO inside a class.
+     */
+    private static final class Ticket implements Comparable<Ticket> {
+        final LlmPriority priority;
+        final long sequence;
+        final long enqueuedNanos = System.nanoTime();
+        boolean granted;
+
+        Ticket(LlmPriority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Ticket other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Per-model slots + wait queue. All state is guarded by the lane's monitor.
+     */
+    private final class Lane {
+        private final String model;
+        private final int maxConcurrency;
+        private final PriorityQueue<Ticket> waiting = new PriorityQueue<>();
+        private final Map<LlmPriority, Integer> depth = new EnumMap<>(LlmPriority.class);
+        private final Map<LlmPriority, PriorityStats> stats = new EnumMap<>(LlmPriority.class);
+        private int active;
+        private long nextSequence;
+        // Exponentially weighted average of how long one call holds a slot
+        private double avgServiceMillis;
+
+        Lane(String model, int maxConcurrency) {
+            this.model = model;
+            this.maxConcurrency = maxConcurrency;
+            for (LlmPriority priority : LlmPriority.values()) {
+                depth.put(priority, 0);
+                stats.put(priority, new PriorityStats());
+            }
+        }
+
+        synchronized void acquire(LlmPriority priority) {
+            PriorityStats priorityStats = stats.get(priority);
+
+            if (active < maxConcurrency && waiting.isEmpty()) {
+                active++;
+                priorityStats.recordWait(0);
+                return;
+            }
+
+            int queued = depth.get(priority);
+            if (queued >= queueDepthLimits.get(priority)) {
+                priorityStats.rejected++;
+                throw new LlmOverloadedException(model, priority, retryAfterSeconds());
+            }
+
+            Ticket ticket = new Ticket(priority, nextSequence++);
+            waiting.add(ticket);
+            depth.put(priority, queued + 1);
+
+            try {
+                while (!ticket.granted) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                if (ticket.granted) {
+                    // We were handed a slot at the same moment: pass it on
+                    releaseSlot();
+                } else {
+                    waiting.remove(ticket);
+                    depth.merge(priority, -1, Integer::sum);
+                }
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for LLM slot", e);
+            }
+
+            priorityStats.recordWait((System.nanoTime() - ticket.enqueuedNanos) / 1_000_000);
+        }
+
+        synchronized boolean isIdle() {
+            return active == 0 && waiting.isEmpty();
+        }
+
+        synchronized void release(long serviceNanos) {
+            Runnable hook = beforeRelease;
+            if (hook != null) {
+                hook.run();
+            }
+            double serviceMillis = serviceNanos / 1_000_000.0;
+            avgServiceMillis = avgServiceMillis == 0
+                    ? serviceMillis
+                    : 0.8 * avgServiceMillis + 0.2 * serviceMillis;
+            releaseSlot();
+        }
+
+        private void releaseSlot() {
+            active--;
+            Ticket next = waiting.poll();
+            if (next != null) {
+                depth.merge(next.priority, -1, Integer::sum);
+                next.granted = true;
+                active++;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Rough hint: time to drain the current queue with the current slots.
+         */
+        private long retryAfterSeconds() {
+            double drainMillis = avgServiceMillis * (waiting.size() + 1) / maxConcurrency;
+            return Math.max(1, (long) Math.ceil(drainMillis / 1000.0));
+        }
+
+        synchronized Map<String, Object> metrics() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("maxConcurrency", maxConcurrency);
+            result.put("active", active);
+            result.put("queued", waiting.size());
+            result.put("avgServiceMillis", Math.round(avgServiceMillis));
+
+            Map<String, Object> byPriority = new LinkedHashMap<>();
+            for (LlmPriority priority : LlmPriority.values()) {
+                PriorityStats s = stats.get(priority);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("queueDepth", depth.get(priority));
+                entry.put("queueLimit", queueDepthLimits.get(priority));
+                entry.put("admitted", s.admitted);
+                entry.put("rejected", s.rejected);
+                entry.put("avgWaitMillis", s.admitted == 0 ? 0 : s.totalWaitMillis / s.admitted);
+                entry.put("maxWaitMillis", s.maxWaitMillis);
+                byPriority.put(priority.name().toLowerCase(), entry);
+            }
+            result.put("priorities", byPriority);
+            return result;
+        }
+    }
+
+    private static final class PriorityStats {
+        long admitted;
+        long rejected;
+        long totalWaitMillis;
+        long maxWaitMillis;
+
+        void recordWait(long waitMillis) {
+            admitted++;
+            totalWaitMillis += waitMillis;
+            maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        }
+    }
+}
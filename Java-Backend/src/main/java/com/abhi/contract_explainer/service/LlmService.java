@@ -1,32 +1,37 @@
 package com.abhi.contract_explainer.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 
 @Service
 public class LlmService {
 
-    // Ollama local chat API
-    private static final String OLLAMA_URL = "http://localhost:11434/api/chat";
-
     // Name of the model you pulled with `ollama pull llama3`
     private static final String MODEL = "llama3";
 
+    // Ollama chat API (local Ollama by default)
+    private final String ollamaUrl;
+
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final LlmScheduler llmScheduler;
 
-    public LlmService(ObjectMapper objectMapper) {
+    public LlmService(ObjectMapper objectMapper, LlmScheduler llmScheduler,
+                      @Value("${llm.ollama-url:http://localhost:11434/api/chat}") String ollamaUrl) {
         this.httpClient = HttpClient.newHttpClient();
         this.objectMapper = objectMapper;
+        this.llmScheduler = llmScheduler;
+        this.ollamaUrl = ollamaUrl;
     }
 
     // Called by /upload to summarize the contract
@@ -40,7 +45,28 @@ public class LlmService {
                 Contract text:
                 """ + contractText;
 
-        return callLlm(prompt);
+        return callLlm(prompt, LlmPriority.SUMMARY);
+    }
+
+    // Called by /{id}/revisions: update the previous summary using only the changed clauses
+    public String updateSummary(String previousSummary, String changedClauses) {
+        String prompt = """
+                You are a helpful assistant that explains contracts in simple language.
+                Below is the summary of the PREVIOUS version of a contract, followed by
+                the clauses that were added, changed or removed in the NEW version.
+                Rewrite the summary so it describes the NEW version, for a non-lawyer,
+                in 5–8 bullet points. Keep points about unchanged parts as they are.
+                Focus on: obligations, payments, duration, termination, and any penalties.
+                Always add: "This is not legal advice." at the end.
+
+                Previous summary:
+                """ + previousSummary + """
+
+
+                Changes in the new version:
+                """ + changedClauses;
+
+        return callLlm(prompt, LlmPriority.SUMMARY);
     }
 
     // Called by /{id}/ask to answer a question about the contract
@@ -67,62 +93,96 @@ public class LlmService {
             Contract excerpt:
             """ + contextText + """
 
-            User question: """ + question;
+            User question:\s""" + question;
 
-        return callLlm(prompt);
+        return callLlm(prompt, LlmPriority.INTERACTIVE);
+    }
+
+    // Called in the background after /upload to pre-explain high-value clauses
+    public String explainClause(String clauseLabel, String clauseText) {
+        String prompt = """
+            You are a careful assistant that explains contract clauses in simple language.
+
+            TASK:
+            1) Explain in simple language what the clause below means for each party.
+            2) Mention any conditions, notice periods, amounts, limits or durations
+               that are clearly written in the clause.
+            3) Do NOT invent rules or numbers that are not clearly written in the text.
+            4) Always end your answer with: "This is not legal advice."
+
+            Clause type:\s""" + clauseLabel + """
+
+            Clause text:
+            """ + clauseText;
+
+        return callLlm(prompt, LlmPriority.BACKGROUND);
+    }
+
+    // True if no LLM call is running or queued right now
+    public boolean isIdle() {
+        return llmScheduler.isIdle(MODEL);
+    }
+
+    // Waits for a slot in the scheduler under the given priority, then calls Ollama
+    private String callLlm(String prompt, LlmPriority priority) {
+        return llmScheduler.submit(MODEL, priority, () -> sendToOllama(prompt));
     }
 
     // Core method: sends prompt to Ollama and returns the model's reply text
-    private String callLlm(String prompt) {
+    private String sendToOllama(String prompt) {
         try {
-            // 1) Build JSON body for Ollama
-            ObjectNode root = objectMapper.createObjectNode();
-            root.put("model", MODEL);
-            root.put("stream", false);
-
-            ArrayNode messages = objectMapper.createArrayNode();
+            // 1) Stream JSON body for Ollama straight into the request publisher
+            HttpRequest.BodyPublisher body = StreamingJson.bodyPublisher(objectMapper.getFactory(), json -> {
+                json.writeStartObject();
+                json.writeStringField("model", MODEL);
+                json.writeBooleanField("stream", false);
 
-            // System message: define the assistant's role
-            ObjectNode systemMsg = objectMapper.createObjectNode();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", "You are a contract and policy explainer for non-lawyers.");
-            messages.add(systemMsg);
+                json.writeArrayFieldStart("messages");
 
-            // User message: our actual prompt (instructions + contract text + question)
-            ObjectNode userMsg = objectMapper.createObjectNode();
-            userMsg.put("role", "user");
-            userMsg.put("content", prompt);
-            messages.add(userMsg);
+                // System message: define the assistant's role
+                writeMessage(json, "system", "You are a contract and policy explainer for non-lawyers.");
 
-            root.set("messages", messages);
+                // User message: our actual prompt (instructions + contract text + question)
+                writeMessage(json, "user", prompt);
 
-            String requestBody = objectMapper.writeValueAsString(root);
+                json.writeEndArray();
+                json.writeEndObject();
+            });
 
             // 2) HTTP POST to local Ollama server
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(OLLAMA_URL))
+                    .uri(URI.create(ollamaUrl))
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .POST(body)
                     .build();
 
-            // 3) Send request
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            // 3) Send request, keep the response as a stream
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
 
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Ollama API error: HTTP " + response.statusCode() + " - " + response.body());
-            }
+            try (InputStream responseBody = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new RuntimeException("Ollama API error: HTTP " + response.statusCode() + " - "
+                            + new String(responseBody.readAllBytes(), StandardCharsets.UTF_8));
+                }
 
-            // 4) Parse JSON and extract the model's reply text
-            JsonNode json = objectMapper.readTree(response.body());
-            JsonNode messageNode = json.get("message");
-            if (messageNode == null || messageNode.get("content") == null) {
-                throw new RuntimeException("Ollama API response has no message content: " + response.body());
-            }
+                // 4) Pull only message.content out of the response
+                String content = StreamingJson.readText(objectMapper.getFactory(), responseBody, "message", "content");
+                if (content == null) {
+                    throw new RuntimeException("Ollama API response has no message content");
+                }
 
-            return messageNode.get("content").asText();
+                return content;
+            }
 
         } catch (IOException | InterruptedException e) {
             throw new RuntimeException("Error calling Ollama LLM API", e);
         }
     }
+
+    private static void writeMessage(JsonGenerator json, String role, String content) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("role", role);
+        json.writeStringField("content", content);
+        json.writeEndObject();
+    }
 }
\ No newline at end of file
@@ -1,27 +1,134 @@
 package com.abhi.contract_explainer.service;
 
+import jakarta.annotation.PostConstruct;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts text from uploaded PDFs without holding the file on the heap.
+ *
+ * - The multipart upload is moved into a spool file (upload.spool-dir)
+ * - PDFBox reads it from disk as a random-access file, and its scratch
+ *   buffers also go to temp files instead of memory
+ * - The spool file is deleted afterwards; leftovers from a crash are removed at startup
+ * - PDFBox 2 has no memory-mapped source; RandomAccessBufferedFileInputStream
+ *   (used by PDDocument.load(File)) reads through a small page cache instead
+ * - At most upload.max-concurrent-large uploads of upload.large-file-threshold
+ *   or more are processed at once; others wait up to upload.large-wait-seconds and
+ *   are then rejected with UploadsBusyException (-> HTTP 429)
+ */
 @Service
 public class PdfService {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfService.class);
+
+    private static final String SPOOL_PREFIX = "upload-";
+    private static final Duration STALE_AFTER = Duration.ofHours(1);
+
+    private final Path spoolDir;
+    private final long largeFileThreshold;
+    private final long largeWaitSeconds;
+    private final Semaphore largeUploads;
+
+    public PdfService(@Value("${upload.spool-dir:${java.io.tmpdir}/contract-explainer-uploads}") Path spoolDir,
+                      @Value("${upload.large-file-threshold:10MB}") DataSize largeFileThreshold,
+                      @Value("${upload.max-concurrent-large:2}") int maxConcurrentLarge,
+                      @Value("${upload.large-wait-seconds:30}") long largeWaitSeconds) {
+        this.spoolDir = spoolDir;
+        this.largeFileThreshold = largeFileThreshold.toBytes();
+        this.largeWaitSeconds = largeWaitSeconds;
+        this.largeUploads = new Semaphore(Math.max(1, maxConcurrentLarge), true);
+    }
+
+    // Create the spool dir and delete files left behind by a crashed run.
+    // Only old files: other instances on the same machine may share the dir.
+    @PostConstruct
+    void cleanSpoolDir() throws IOException {
+        Files.createDirectories(spoolDir);
+        FileTime cutoff = FileTime.from(Instant.now().minus(STALE_AFTER));
+        try (DirectoryStream<Path> spooled = Files.newDirectoryStream(spoolDir, SPOOL_PREFIX + "*")) {
+            for (Path file : spooled) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
     public String extractText(MultipartFile file) throws IOException  {
-        try (PDDocument document = PDDocument.load(file.getInputStream())) {
+        boolean large = file.getSize() >= largeFileThreshold;
+        if (large) {
+            acquireLargeUploadSlot(file.getSize());
+        }
+
+        // 1. Spool the upload to disk (a move when the container already buffered it in a temp file)
+        Path spoolFile = Files.createTempFile(spoolDir, SPOOL_PREFIX, ".pdf");
+        try {
+            file.transferTo(spoolFile.toFile());
+
+            try (PDDocument document = PDDocument.load(spoolFile.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
 
-            // 2. Create a PDFTextStripper, which knows how to pull text out of a PDF
-            PDFTextStripper stripper = new PDFTextStripper();
+                // 2. Create a PDFTextStripper, which knows how to pull text out of a PDF
+                PDFTextStripper stripper = new PDFTextStripper();
 
-            // 3. Ask the stripper to read all text from the PDF document
-            String text = stripper.getText(document);
+                // 3. Ask the stripper to read all text from the PDF document
+                String text = stripper.getText(document);
 
-            // 4. Return the extracted text as a plain Java String
-            return text;
+                // 4. Return the extracted text as a plain Java String
+                return text;
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(spoolFile);
+            } catch (IOException e) {
+                log.warn("Could not delete spool file {}", spoolFile, e);
+            }
+            if (large) {
+                largeUploads.release();
+            }
         }
+    }
 
+    private void acquireLargeUploadSlot(long fileSize) {
+        try {
+            if (!largeUploads.tryAcquire(largeWaitSeconds, TimeUnit.SECONDS)) {
+                throw new UploadsBusyException(fileSize, Math.max(1, largeWaitSeconds));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadsBusyException(fileSize, Math.max(1, largeWaitSeconds));
+        }
+    }
 
+    /**
+     * Load PDFBox's text extraction classes and build its system font cache
+     * (scanned on first use of a non-embedded font, which can take seconds).
+     * Called by StartupWarmup so the first real upload does not pay for it.
+     */
+    public void warmUp() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            new PDFTextStripper().getText(document);
+        }
+        FontMappers.instance().getTrueTypeFont("Helvetica", null);
     }
 }
@@ -0,0 +1,99 @@
+package com.abhi.contract_explainer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Warms up the request path right after startup.
+ *
+ * With the fast-start profile (lazy initialization) the controllers, the
+ * services they inject (and their HTTP clients), the DispatcherServlet and
+ * PDFBox's font cache are all created on first use. This listener:
+ *  1. builds PDFBox's font cache
+ *  2. creates every @RestController bean, and with it everything it injects
+ *  3. sends one local /ask for an unknown contract id, which initializes the
+ *     DispatcherServlet, handler mappings, JSON request/response conversion
+ *     and the store lookup, without calling the LLM
+ *
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after all
+ * ApplicationReadyEvent listeners have returned, so /probe/readiness reports
+ * 503 until warm-up is done and the load balancer keeps traffic away from a
+ * cold instance.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    // No contract has this id, so /ask answers "not found" without an LLM call
+    private static final String WARMUP_PATH = "/api/contracts/startup-warm-up/ask";
+
+    private final PdfService pdfService;
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+
+    public StartupWarmup(PdfService pdfService,
+                         ApplicationContext applicationContext,
+                         Environment environment) {
+        this.pdfService = pdfService;
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            pdfService.warmUp();
+        } catch (Exception e) {
+            // A failed warm-up only costs first-request latency: still go ready
+            log.warn("PDFBox warm-up failed", e);
+        }
+
+        int controllers = applicationContext.getBeansWithAnnotation(RestController.class).size();
+        warmUpRequest();
+
+        log.info("Warm-up done in {} ms ({} controllers)", (System.nanoTime() - start) / 1_000_000, controllers);
+    }
+
+    private void warmUpRequest() {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return; // no embedded web server (e.g. mock web environment in tests)
+        }
+        String contextPath = environment.getProperty("server.servlet.context-path", "");
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(2))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + contextPath + WARMUP_PATH))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"question\":\"warm-up\"}"))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                log.warn("Warm-up request answered HTTP {}", response.statusCode());
+            }
+        } catch (IOException e) {
+            log.warn("Warm-up request failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
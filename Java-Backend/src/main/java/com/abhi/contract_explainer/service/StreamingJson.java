@@ -0,0 +1,137 @@
+package com.abhi.contract_explainer.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming JSON helpers for the HTTP calls to Ollama and the classifier.
+ *
+ * Request and response bodies can hold a whole contract, so we avoid
+ * building JsonNode trees and intermediate Strings:
+ *  - requests are written with a JsonGenerator straight into fixed-size
+ *    byte chunks that the BodyPublisher sends one after another
+ *  - responses are read token by token and only the one field we need
+ *    is materialized; everything else is skipped
+ */
+final class StreamingJson {
+
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    @FunctionalInterface
+    interface BodyWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private StreamingJson() {
+    }
+
+    /**
+     * Encode a request body with the given writer and wrap it as a BodyPublisher.
+     * The length is known once encoded, so the request gets a Content-Length
+     * instead of chunked transfer encoding.
+     */
+    static HttpRequest.BodyPublisher bodyPublisher(JsonFactory factory, BodyWriter writer) throws IOException {
+        ChunkedOutputStream out = new ChunkedOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            writer.write(generator);
+        }
+        if (out.size() == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofByteArrays(out.chunks()), out.size());
+    }
+
+    /**
+     * Read the text value at the given object path, e.g. ("message", "content")
+     * for { "message": { "content": "..." } }. Returns null if it is missing.
+     */
+    static String readText(JsonFactory factory, InputStream in, String... path) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return findInObject(parser, path, 0);
+        }
+    }
+
+    private static String findInObject(JsonParser parser, String[] path, int depth) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            if (name.equals(path[depth])) {
+                if (depth == path.length - 1) {
+                    return value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+                }
+                return value == JsonToken.START_OBJECT ? findInObject(parser, path, depth + 1) : null;
+            }
+
+            // Not on our path: skip the whole value without building it
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * OutputStream that collects bytes in fixed-size chunks, so a large body
+     * never needs one contiguous (and repeatedly re-grown) array.
+     */
+    static final class ChunkedOutputStream extends OutputStream {
+        private final List<byte[]> chunks = new ArrayList<>();
+        private byte[] current = new byte[CHUNK_SIZE];
+        private int position;
+
+        @Override
+        public void write(int b) {
+            if (position == current.length) {
+                nextChunk();
+            }
+            current[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                if (position == current.length) {
+                    nextChunk();
+                }
+                int n = Math.min(len, current.length - position);
+                System.arraycopy(b, off, current, position, n);
+                position += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void nextChunk() {
+            chunks.add(current);
+            current = new byte[CHUNK_SIZE];
+            position = 0;
+        }
+
+        long size() {
+            return (long) chunks.size() * CHUNK_SIZE + position;
+        }
+
+        List<byte[]> chunks() {
+            List<byte[]> result = new ArrayList<>(chunks);
+            if (position > 0) {
+                byte[] last = new byte[position];
+                System.arraycopy(current, 0, last, 0, position);
+                result.add(last);
+            }
+            return result;
+        }
+    }
+}
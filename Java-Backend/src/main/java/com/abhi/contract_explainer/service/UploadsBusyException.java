@@ -0,0 +1,21 @@
+package com.abhi.contract_explainer.service;
+
+/**
+ * Thrown by PdfService when too many large uploads are already being
+ * processed and no slot freed up in time.
+ *
+ * The controller turns this into HTTP 429 with a Retry-After header.
+ */
+public class UploadsBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadsBusyException(long fileSize, long retryAfterSeconds) {
+        super("Too many large uploads in progress, rejected file of " + fileSize + " bytes");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
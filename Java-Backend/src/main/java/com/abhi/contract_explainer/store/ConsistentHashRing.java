@@ -0,0 +1,122 @@
+package com.abhi.contract_explainer.store;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring that maps keys (contract ids) to node urls.
+ *
+ * Each node is placed on the ring many times ("virtual nodes") so keys
+ * spread evenly, and adding a node only moves the keys that now land on it.
+ * Removing a node gives its keys to the next node clockwise, i.e. back to
+ * whoever owned them before it was added.
+ *
+ * Thread-safe: all methods synchronize on the ring.
+ */
+public class ConsistentHashRing {
+
+    private final int virtualNodes;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> nodes = new LinkedHashSet<>();
+
+    public ConsistentHashRing(int virtualNodes, Collection<String> initialNodes) {
+        this.virtualNodes = Math.max(1, virtualNodes);
+        for (String node : initialNodes) {
+            addNode(node);
+        }
+    }
+
+    /**
+     * Add a node. Returns false if it was already on the ring.
+     */
+    public synchronized boolean addNode(String node) {
+        if (!nodes.add(node)) {
+            return false;
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(node + "#" + i), node);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a node (e.g. one that stopped answering). Returns false if it
+     * was not on the ring.
+     */
+    public synchronized boolean removeNode(String node) {
+        if (!nodes.remove(node)) {
+            return false;
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.remove(hash(node + "#" + i), node);
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(String node) {
+        return nodes.contains(node);
+    }
+
+    /**
+     * Owner of the given key: first node clockwise from the key's hash.
+     * Returns null if the ring is empty.
+     */
+    public synchronized String nodeFor(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash(key));
+        if (owner == null) {
+            // Past the last point: wrap around to the start of the ring
+            owner = ring.firstEntry();
+        }
+        return owner.getValue();
+    }
+
+    /**
+     * Owner the key would have if the given node were not on the ring,
+     * i.e. the node that owned it before that node joined.
+     * Returns null if no other node is on the ring.
+     */
+    public synchronized String nodeForExcluding(String key, String excludedNode) {
+        long h = hash(key);
+        for (String node : ring.tailMap(h, true).values()) {
+            if (!node.equals(excludedNode)) {
+                return node;
+            }
+        }
+        for (String node : ring.headMap(h, false).values()) {
+            if (!node.equals(excludedNode)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    public synchronized List<String> nodes() {
+        return new ArrayList<>(nodes);
+    }
+
+    // First 8 bytes of MD5: cheap, stable across JVMs, well spread
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xff);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
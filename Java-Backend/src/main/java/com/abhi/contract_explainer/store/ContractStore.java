@@ -1,41 +1,49 @@
 package com.abhi.contract_explainer.store;
 
 import com.abhi.contract_explainer.model.StoredContract;
-import org.springframework.stereotype.Component;
-
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * In-memory store for uploaded contracts.
- *
- * OLD:
- *  - Map<String, String> contracts   (contractId -> fullText only)
+ * Storage SPI for uploaded contracts.
  *
- * NEW:
- *  - Map<String, StoredContract> contracts  (contractId -> fullText + clauses)
+ * Which implementation is active is chosen by contract.store.mode:
+ *  - local   (default): InMemoryContractStore, one JVM only
+ *  - sharded:           ShardedContractStore, contracts spread over several
+ *                       backend nodes by consistent hashing of the contractId
  */
-@Component
-public class ContractStore {
-
-    // contractId -> StoredContract (full text + clauses)
-    private final Map<String, StoredContract> contracts = new ConcurrentHashMap<>();
+public interface ContractStore {
 
     /**
-     * Save a StoredContract in memory and return its generated contractId.
+     * Save a StoredContract and return its generated contractId.
      */
-    public String save(StoredContract contract) {
-        String contractId = UUID.randomUUID().toString();
-        contracts.put(contractId, contract);
-        return contractId;
-    }
+    String save(StoredContract contract);
 
     /**
      * Get the StoredContract (full text + clauses) for the given id.
      * Returns null if not found.
+     *
+     * This is the hot path (/ask): implementations may leave out the earlier
+     * versions (revisions), e.g. when the contract lives on another node.
+     */
+    StoredContract getById(String contractId);
+
+    /**
+     * Like getById, but always with the earlier versions (revisions).
+     * Use this before building a new version or listing the history.
      */
-    public StoredContract getById(String contractId) {
-        return contracts.get(contractId);
+    default StoredContract getWithHistory(String contractId) {
+        return getById(contractId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Replace the StoredContract saved under an existing contractId.
+     */
+    void update(String contractId, StoredContract contract);
+
+    /**
+     * Replace the StoredContract only if the stored version is still
+     * expectedVersion, so two writers that both started from the same
+     * version cannot both win (the second one would silently drop the first).
+     * Returns false if the version changed in the meantime or the contract is gone.
+     */
+    boolean updateIfVersion(String contractId, int expectedVersion, StoredContract contract);
+}
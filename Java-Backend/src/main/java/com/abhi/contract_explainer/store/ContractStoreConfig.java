@@ -0,0 +1,44 @@
+package com.abhi.contract_explainer.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+
+/**
+ * Picks the ContractStore implementation from contract.store.mode.
+ *
+ * This is a plain @Bean method that reads the property when the app starts,
+ * not @ConditionalOnProperty on the store classes: Spring AOT (fast-start and
+ * native builds) evaluates conditions once at build time, so a conditional
+ * store would be frozen to whatever mode the build ran with and
+ * --contract.store.mode=sharded would be silently ignored.
+ *
+ * Not lazy even with spring.main.lazy-initialization: the sharded store has
+ * to join its peers at startup, not on the first request.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ContractStoreConfig {
+
+    @Bean
+    @Lazy(false)
+    public ContractStore contractStore(Environment environment, ObjectMapper objectMapper) {
+        String mode = environment.getProperty("contract.store.mode", "local");
+
+        switch (mode) {
+            case "local":
+                return new InMemoryContractStore();
+            case "sharded":
+                return new ShardedContractStore(objectMapper,
+                        environment.getRequiredProperty("contract.store.sharded.self-url"),
+                        environment.getRequiredProperty("contract.store.sharded.nodes"),
+                        environment.getProperty("contract.store.sharded.virtual-nodes", Integer.class, 128),
+                        environment.getProperty("contract.store.sharded.secret", ""),
+                        environment.getProperty("contract.store.sharded.rejoin-interval-seconds", Long.class, 10L),
+                        environment.getProperty("contract.store.sharded.request-timeout-seconds", Long.class, 5L));
+            default:
+                throw new IllegalStateException("Unknown contract.store.mode '" + mode + "', use local or sharded");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.abhi.contract_explainer.store;
+
+import com.abhi.contract_explainer.model.StoredContract;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store for uploaded contracts.
+ *
+ * OLD:
+ *  - Map<String, String> contracts   (contractId -> fullText only)
+ *
+ * NEW:
+ *  - Map<String, StoredContract> contracts  (contractId -> fullText + clauses)
+ *
+ * Default ContractStore (contract.store.mode=local, see ContractStoreConfig).
+ * Only sees contracts uploaded to this JVM.
+ */
+public class InMemoryContractStore implements ContractStore {
+
+    // contractId -> StoredContract (full text + clauses)
+    private final Map<String, StoredContract> contracts = new ConcurrentHashMap<>();
+
+    /**
+     * Save a StoredContract in memory and return its generated contractId.
+     */
+    @Override
+    public String save(StoredContract contract) {
+        String contractId = UUID.randomUUID().toString();
+        contracts.put(contractId, contract);
+        return contractId;
+    }
+
+    /**
+     * Get the StoredContract (full text + clauses) for the given id.
+     * Returns null if not found.
+     */
+    @Override
+    public StoredContract getById(String contractId) {
+        return contracts.get(contractId);
+    }
+
+    @Override
+    public void update(String contractId, StoredContract contract) {
+        contracts.put(contractId, contract);
+    }
+
+    @Override
+    public boolean updateIfVersion(String contractId, int expectedVersion, StoredContract contract) {
+        return updateIfVersion(contracts, contractId, expectedVersion, contract);
+    }
+
+    // Version check + replace in one atomic step on the map entry
+    static boolean updateIfVersion(Map<String, StoredContract> contracts, String contractId,
+                                   int expectedVersion, StoredContract contract) {
+        boolean[] updated = new boolean[1];
+        contracts.computeIfPresent(contractId, (id, stored) -> {
+            if (stored.getVersion() != expectedVersion) {
+                return stored;
+            }
+            updated[0] = true;
+            return contract;
+        });
+        return updated[0];
+    }
+}
@@ -0,0 +1,524 @@
+package com.abhi.contract_explainer.store;
+
+import com.abhi.contract_explainer.model.StoredContract;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ContractStore that spreads contracts over several backend nodes
+ * (contract.store.mode=sharded, created by ContractStoreConfig).
+ *
+ * - Every node is configured with the full node list, but a peer only goes on
+ *   this node's ConsistentHashRing once it has answered (or joined us itself).
+ *   Peers that are down at startup are retried every rejoin-interval-seconds.
+ * - Contracts owned by this node live in a local map.
+ * - save/getById/update for a contract owned by another node are forwarded to
+ *   that node's /internal/contracts endpoint (see ClusterController).
+ *   Remote getById only fetches the current version; earlier versions
+ *   (revisions) are fetched by getWithHistory.
+ * - updateIfVersion is checked on the owner, atomically (409 when forwarded).
+ * - A node only applies a forwarded write if it owns the contract by its own
+ *   ring (or still holds it); otherwise it passes the write on to the owner
+ *   once, and refuses a write that was already passed on (HTTP 421).
+ * - A failed read or write is retried and then fails the request with
+ *   StoreUnavailableException (HTTP 503); it never takes the peer off the ring.
+ *   Membership only changes on the rejoin-interval-seconds health check: a peer
+ *   that does not answer the probe is taken off the ring (its contracts are
+ *   lost with it: the store is in-memory), one that answers again is re-joined.
+ * - When a node joins, every existing node hands over the contracts that
+ *   now hash to the new node. A failed handover can simply be retried, and
+ *   until the joining node's handovers are done it asks the previous owner
+ *   for contracts it owns but does not have yet. Every health check also
+ *   hands over any contract this node holds but no longer owns, so nodes
+ *   whose rings briefly disagreed end up with the same placement.
+ *
+ * Several instances on one machine, e.g. ports 8080 and 8081:
+ *   --server.port=8081
+ *   --contract.store.mode=sharded
+ *   --contract.store.sharded.self-url=http://localhost:8081
+ *   --contract.store.sharded.nodes=http://localhost:8080,http://localhost:8081
+ *   --contract.store.sharded.secret=<same value on every node>
+ *
+ * The /internal endpoints are served on the public port. Without
+ * contract.store.sharded.secret anyone who can reach a node can read and
+ * overwrite contracts through them, so set it (or firewall /internal) in
+ * any real deployment.
+ */
+public class ShardedContractStore implements ContractStore, ApplicationListener<ApplicationReadyEvent> {
+
+    /** Header carrying contract.store.sharded.secret on node-to-node calls. */
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedContractStore.class);
+
+    // Tries per remote read/write before the request fails
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final String selfUrl;
+    private final List<String> peers = new ArrayList<>();
+    private final String secret;
+    private final long rejoinIntervalSeconds;
+    private final Duration requestTimeout;
+    private final ConsistentHashRing ring;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    // contractId -> StoredContract, only for contracts this node owns
+    private final Map<String, StoredContract> localContracts = new ConcurrentHashMap<>();
+
+    // Peers on our ring that have not finished handing our share over to us yet
+    private final Set<String> pendingHandovers = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService rejoinExecutor;
+
+    public ShardedContractStore(ObjectMapper objectMapper,
+                                String selfUrl,
+                                String nodes,
+                                int virtualNodes,
+                                String secret,
+                                long rejoinIntervalSeconds,
+                                long requestTimeoutSeconds) {
+        this.selfUrl = normalize(selfUrl);
+        this.objectMapper = objectMapper;
+        this.secret = secret;
+        this.rejoinIntervalSeconds = Math.max(1, rejoinIntervalSeconds);
+        // Bounds every node-to-node call: a peer that accepts the connection and then
+        // hangs must not hold /ask threads, saves or joinPeers (synchronized) forever
+        this.requestTimeout = Duration.ofSeconds(Math.max(1, requestTimeoutSeconds));
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+
+        Arrays.stream(nodes.split(","))
+                .map(ShardedContractStore::normalize)
+                .filter(url -> !url.isEmpty() && !url.equals(this.selfUrl))
+                .distinct()
+                .forEach(peers::add);
+
+        // Only this node to begin with: peers are added once they answer
+        this.ring = new ConsistentHashRing(virtualNodes, List.of(this.selfUrl));
+
+        if (secret.isEmpty()) {
+            log.warn("contract.store.sharded.secret is not set: /internal endpoints accept requests from anyone");
+        }
+    }
+
+    // How a write is applied on the owner
+    private enum WriteMode { REPLACE, HANDOVER, IF_VERSION }
+
+    /** Outcome of a write received from another node (see ClusterController). */
+    public enum WriteResult { STORED, VERSION_CONFLICT, NOT_OWNER }
+
+    @Override
+    public String save(StoredContract contract) {
+        String contractId = UUID.randomUUID().toString();
+        writeToOwner(contractId, contract, WriteMode.REPLACE, 0, false);
+        return contractId;
+    }
+
+    @Override
+    public StoredContract getById(String contractId) {
+        return get(contractId, false);
+    }
+
+    @Override
+    public StoredContract getWithHistory(String contractId) {
+        return get(contractId, true);
+    }
+
+    private StoredContract get(String contractId, boolean withHistory) {
+        // Local first: also covers contracts still waiting to be handed over
+        StoredContract local = localContracts.get(contractId);
+        if (local != null) {
+            return local;
+        }
+
+        String owner = ring.nodeFor(contractId);
+        if (!selfUrl.equals(owner)) {
+            return fetch(owner, contractId, withHistory);
+        }
+        if (pendingHandovers.isEmpty()) {
+            return null;
+        }
+
+        // Ours by the ring, but a peer may not have handed it over yet: ask the previous owner
+        String previousOwner = ring.nodeForExcluding(contractId, selfUrl);
+        StoredContract handedOver = previousOwner == null ? null : fetch(previousOwner, contractId, withHistory);
+        return handedOver != null ? handedOver : localContracts.get(contractId);
+    }
+
+    @Override
+    public void update(String contractId, StoredContract contract) {
+        writeToOwner(contractId, contract, WriteMode.REPLACE, 0, false);
+    }
+
+    @Override
+    public boolean updateIfVersion(String contractId, int expectedVersion, StoredContract contract) {
+        return writeToOwner(contractId, contract, WriteMode.IF_VERSION, expectedVersion, false) != null;
+    }
+
+    // ---- used by ClusterController (requests forwarded from other nodes) ----
+
+    public StoredContract getLocal(String contractId) {
+        return localContracts.get(contractId);
+    }
+
+    /**
+     * A write sent by another node (handover, expectedVersion and forwarded
+     * are the query parameters of the PUT).
+     *
+     * Applied here if this node owns the contract by its own ring, or still
+     * holds it because it has not handed it over yet. Otherwise the write is
+     * passed on to the owner - but only once: a write that another node
+     * already passed on is refused with NOT_OWNER, so two nodes whose rings
+     * disagree cannot bounce it back and forth or park it on the wrong node.
+     */
+    public WriteResult receiveWrite(String contractId, StoredContract contract,
+                                    boolean handover, Integer expectedVersion, boolean forwarded) {
+        WriteMode mode = expectedVersion != null ? WriteMode.IF_VERSION
+                : handover ? WriteMode.HANDOVER : WriteMode.REPLACE;
+        int expected = expectedVersion != null ? expectedVersion : 0;
+
+        boolean applied;
+        if (selfUrl.equals(ring.nodeFor(contractId)) || localContracts.containsKey(contractId)) {
+            applied = writeLocal(contractId, contract, mode, expected);
+        } else if (forwarded) {
+            return WriteResult.NOT_OWNER;
+        } else {
+            applied = writeToOwner(contractId, contract, mode, expected, true) != null;
+        }
+        return applied ? WriteResult.STORED : WriteResult.VERSION_CONFLICT;
+    }
+
+    /**
+     * Add a node to the ring and hand over every local contract that now
+     * belongs to another node. Returns how many contracts were moved.
+     *
+     * Safe to call again for a node that is already on the ring: a join
+     * that failed half-way is retried by running the handover again.
+     */
+    public int addNode(String nodeUrl) {
+        String node = normalize(nodeUrl);
+        ring.addNode(node);
+        return handOverForeignContracts();
+    }
+
+    // Move every local contract that this node does not own (any more) to its owner.
+    // Throws StoreUnavailableException if an owner does not answer; the rest stays here.
+    private int handOverForeignContracts() {
+        int moved = 0;
+        for (Map.Entry<String, StoredContract> entry : localContracts.entrySet()) {
+            if (selfUrl.equals(ring.nodeFor(entry.getKey()))) {
+                continue;
+            }
+            String holder = writeToOwner(entry.getKey(), entry.getValue(), WriteMode.HANDOVER, 0, false);
+            if (!selfUrl.equals(holder)) {
+                localContracts.remove(entry.getKey(), entry.getValue());
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    public List<String> nodes() {
+        return ring.nodes();
+    }
+
+    public String getSelfUrl() {
+        return selfUrl;
+    }
+
+    public int localCount() {
+        return localContracts.size();
+    }
+
+    /**
+     * Does the secret sent by another node match ours?
+     * Always true when no secret is configured.
+     */
+    public boolean isTrusted(String presentedSecret) {
+        if (secret.isEmpty()) {
+            return true;
+        }
+        return presentedSecret != null && MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), presentedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Once this node is serving, join every configured peer that is up, and
+     * keep checking all of them (and retrying failed handovers) in the background.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        joinPeers();
+
+        rejoinExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sharded-store-rejoin");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rejoinExecutor.scheduleWithFixedDelay(this::joinPeers,
+                rejoinIntervalSeconds, rejoinIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Called on context close (inferred destroy method of the @Bean)
+    public void shutdown() {
+        if (rejoinExecutor != null) {
+            rejoinExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Health check and join, for every configured peer:
+     *  1. probe it - a peer that does not answer is taken off the ring (or stays off it)
+     *  2. if it is not on the ring yet (or its handover to us did not finish),
+     *     put it on our ring and hand over our contracts that it now owns
+     *  3. ask it to add us and hand over the contracts we now own
+     * and finally hand over anything else this node holds but does not own.
+     */
+    synchronized void joinPeers() {
+        for (String peer : peers) {
+            try {
+                if (!isReachable(peer)) {
+                    markDown(peer);
+                    continue;
+                }
+                if (ring.contains(peer) && !pendingHandovers.contains(peer)) {
+                    continue;
+                }
+                pendingHandovers.add(peer);
+                addNode(peer);
+
+                HttpResponse<Void> response = httpClient.send(
+                        clusterRequest(peer + "/internal/cluster/join")
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        objectMapper.writeValueAsString(Map.of("url", selfUrl))))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+
+                if (response.statusCode() == 200) {
+                    pendingHandovers.remove(peer);
+                } else {
+                    log.warn("Join at {} failed with HTTP {}, retrying in {} s",
+                            peer, response.statusCode(), rejoinIntervalSeconds);
+                }
+            } catch (IOException e) {
+                log.warn("Join at {} failed, retrying in {} s: {}", peer, rejoinIntervalSeconds, e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Join at {} failed, retrying in {} s", peer, rejoinIntervalSeconds, e);
+            }
+        }
+
+        try {
+            handOverForeignContracts();
+        } catch (RuntimeException e) {
+            log.warn("Handover of contracts owned by other nodes failed, retrying in {} s: {}",
+                    rejoinIntervalSeconds, e.toString());
+        }
+    }
+
+    /**
+     * Write the contract to whichever node owns it. A failed write is retried
+     * once; if the owner still fails, the request fails with
+     * StoreUnavailableException and the ring stays as it is. Returns the node
+     * that now holds the contract, or null if an IF_VERSION write found a
+     * different version.
+     */
+    private String writeToOwner(String contractId, StoredContract contract, WriteMode mode,
+                                int expectedVersion, boolean forwarded) {
+        for (int attempt = 1; ; attempt++) {
+            String owner = ring.nodeFor(contractId);
+            if (selfUrl.equals(owner)) {
+                if (mode == WriteMode.IF_VERSION && !localContracts.containsKey(contractId)
+                        && !pendingHandovers.isEmpty()) {
+                    // Not handed over yet: the version check has to happen where it still is
+                    String previousOwner = ring.nodeForExcluding(contractId, selfUrl);
+                    if (previousOwner != null) {
+                        owner = previousOwner;
+                    }
+                }
+            }
+            if (selfUrl.equals(owner)) {
+                return writeLocal(contractId, contract, mode, expectedVersion) ? owner : null;
+            }
+            try {
+                return putRemote(owner, contractId, contract, mode, expectedVersion, forwarded) ? owner : null;
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw unavailable("Store node " + owner + " did not take contract " + contractId, e);
+                }
+                log.debug("Write of contract {} to {} failed, retrying: {}", contractId, owner, e.toString());
+            }
+        }
+    }
+
+    private boolean writeLocal(String contractId, StoredContract contract, WriteMode mode, int expectedVersion) {
+        switch (mode) {
+            case HANDOVER:
+                // Keep a newer version that already got here (e.g. a revision
+                // routed to us while the handover was running)
+                localContracts.merge(contractId, contract,
+                        (stored, incoming) -> incoming.getVersion() > stored.getVersion() ? incoming : stored);
+                return true;
+            case IF_VERSION:
+                return InMemoryContractStore.updateIfVersion(localContracts, contractId, expectedVersion, contract);
+            default:
+                localContracts.put(contractId, contract);
+                return true;
+        }
+    }
+
+    // Remote read, retried once. A node that does not answer is not the same
+    // as "no such contract", so this fails the request instead of returning null.
+    private StoredContract fetch(String node, String contractId, boolean withHistory) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return getRemote(node, contractId, withHistory);
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw unavailable("Store node " + node + " did not answer for contract " + contractId, e);
+                }
+                log.debug("Read of contract {} from {} failed, retrying: {}", contractId, node, e.toString());
+            }
+        }
+    }
+
+    // Only called by the health check in joinPeers, never for a single failed request
+    private void markDown(String node) {
+        pendingHandovers.remove(node);
+        if (ring.removeNode(node)) {
+            log.warn("Store node {} did not answer the health check, removed it from the ring", node);
+        }
+    }
+
+    private boolean isReachable(String node) throws InterruptedException {
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    clusterRequest(node + "/internal/cluster/nodes").GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                log.warn("Store node {} answered HTTP {} to a cluster probe", node, response.statusCode());
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            log.debug("Store node {} is not reachable: {}", node, e.toString());
+            return false;
+        }
+    }
+
+    private StoreUnavailableException unavailable(String message, Throwable cause) {
+        return new StoreUnavailableException(message, rejoinIntervalSeconds, cause);
+    }
+
+    // False if the owner rejected an IF_VERSION write (HTTP 409)
+    private boolean putRemote(String node, String contractId, StoredContract contract,
+                              WriteMode mode, int expectedVersion, boolean forwarded) throws IOException {
+        try {
+            String requestBody = objectMapper.writeValueAsString(contract);
+
+            List<String> params = new ArrayList<>();
+            switch (mode) {
+                case HANDOVER -> params.add("handover=true");
+                case IF_VERSION -> params.add("expectedVersion=" + expectedVersion);
+                default -> { }
+            }
+            if (forwarded) {
+                params.add("forwarded=true");
+            }
+            String query = params.isEmpty() ? "" : "?" + String.join("&", params);
+            HttpRequest request = clusterRequest(node + "/internal/contracts/" + contractId + query)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() == 409 && mode == WriteMode.IF_VERSION) {
+                return false;
+            }
+            if (response.statusCode() == 421 || response.statusCode() == 503) {
+                // 421: the node we forwarded to does not own it either, the rings disagree
+                // until the next health check; 503: the owner could not reach its own owner
+                throw unavailable("Store node " + node + " could not take contract " + contractId
+                        + " (HTTP " + response.statusCode() + ")", null);
+            }
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("Store node error: HTTP " + response.statusCode()
+                        + " from " + node + " - " + response.body());
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted forwarding contract " + contractId + " to " + node, e);
+        }
+    }
+
+    private StoredContract getRemote(String node, String contractId, boolean withHistory) throws IOException {
+        try {
+            HttpRequest request = clusterRequest(node + "/internal/contracts/" + contractId
+                    + (withHistory ? "?history=true" : ""))
+                    .GET()
+                    .build();
+
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+            if (response.statusCode() == 404) {
+                return null;
+            }
+            if (response.statusCode() == 503) {
+                throw unavailable("Store node " + node + " is unavailable", null);
+            }
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("Store node error: HTTP " + response.statusCode() + " from " + node);
+            }
+
+            return objectMapper.readValue(response.body(), StoredContract.class);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted fetching contract " + contractId + " from " + node, e);
+        }
+    }
+
+    private HttpRequest.Builder clusterRequest(String url) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout);
+        if (!secret.isEmpty()) {
+            builder.header(SECRET_HEADER, secret);
+        }
+        return builder;
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url == null ? "" : url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,23 @@
+package com.abhi.contract_explainer.store;
+
+/**
+ * Thrown by ShardedContractStore when the node that owns a contract did not
+ * answer, even after a retry, or the nodes disagree about who owns it.
+ *
+ * The contract is not reported as missing: the controller turns this into
+ * HTTP 503 with a Retry-After header, and the client tries again once the
+ * cluster has settled.
+ */
+public class StoreUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public StoreUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,170 @@
+package com.abhi.contract_explainer.controller;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.abhi.contract_explainer.service.ClauseClassifierService;
+import com.abhi.contract_explainer.service.ClauseDiffService;
+import com.abhi.contract_explainer.service.LlmOverloadedException;
+import com.abhi.contract_explainer.service.LlmPriority;
+import com.abhi.contract_explainer.service.LlmScheduler;
+import com.abhi.contract_explainer.service.LlmService;
+import com.abhi.contract_explainer.service.PdfService;
+import com.abhi.contract_explainer.store.ContractStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContractControllerTests {
+
+	private static final String TERMINATION = "Either party may terminate this Agreement with 30 days written notice.";
+	private static final String PAYMENT = "The Customer shall pay all invoices within 30 days of receipt.";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private LlmScheduler llmScheduler;
+
+	@Autowired
+	private ContractStore contractStore;
+
+	@Autowired
+	private ClauseDiffService clauseDiffService;
+
+	// No Ollama and no real PDFs in these tests
+	@MockitoBean
+	private LlmService llmService;
+
+	@MockitoBean
+	private ClauseClassifierService clauseClassifierService;
+
+	@MockitoBean
+	private PdfService pdfService;
+
+	@Test
+	void llmSchedulerEndpointServesCounters() throws Exception {
+		llmScheduler.submit("endpoint-test", LlmPriority.INTERACTIVE, () -> "ok");
+		llmScheduler.submit("endpoint-test", LlmPriority.BACKGROUND, () -> "ok");
+
+		mockMvc.perform(get("/api/contracts/debug/llm-scheduler"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$['endpoint-test'].maxConcurrency").value(1))
+				.andExpect(jsonPath("$['endpoint-test'].active").value(0))
+				.andExpect(jsonPath("$['endpoint-test'].queued").value(0))
+				.andExpect(jsonPath("$['endpoint-test'].priorities.interactive.admitted").value(1))
+				.andExpect(jsonPath("$['endpoint-test'].priorities.background.admitted").value(1))
+				.andExpect(jsonPath("$['endpoint-test'].priorities.summary.admitted").value(0))
+				.andExpect(jsonPath("$['endpoint-test'].priorities.interactive.queueLimit").value(32))
+				.andExpect(jsonPath("$['endpoint-test'].priorities.background.rejected").value(0));
+	}
+
+	@Test
+	void overloadedLlmIs429WithRetryAfter() throws Exception {
+		String id = contractStore.save(original());
+		when(llmService.answerQuestion(anyString(), anyString()))
+				.thenThrow(new LlmOverloadedException("llama3", LlmPriority.INTERACTIVE, 7));
+
+		mockMvc.perform(post("/api/contracts/{id}/ask", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"question\":\"When do I have to pay?\"}"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"))
+				.andExpect(jsonPath("$.priority").value("INTERACTIVE"))
+				.andExpect(jsonPath("$.retryAfterSeconds").value(7));
+	}
+
+	@Test
+	void revisionUploadReportsChangesAndExtendsTheHistory() throws Exception {
+		String id = contractStore.save(original());
+		when(pdfService.extractText(any())).thenReturn(TERMINATION + "\n\n" + PAYMENT + " Late fees apply.");
+		when(clauseClassifierService.classifyClause(anyString())).thenReturn("Payment");
+		when(llmService.updateSummary(anyString(), anyString())).thenReturn("updated summary");
+
+		mockMvc.perform(get("/api/contracts/{id}/revisions", id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].version").value(1));
+
+		mockMvc.perform(multipart("/api/contracts/{id}/revisions", id).file(pdf()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(2))
+				.andExpect(jsonPath("$.summary").value("updated summary"))
+				.andExpect(jsonPath("$.unchangedClauses").value(1))
+				.andExpect(jsonPath("$.reclassifiedClauses").value(1))
+				.andExpect(jsonPath("$.changes", hasSize(1)))
+				.andExpect(jsonPath("$.changes[0].type").value("CHANGED"))
+				.andExpect(jsonPath("$.changes[0].oldClauseId").value("clause-2"));
+
+		// Newest first
+		mockMvc.perform(get("/api/contracts/{id}/revisions", id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].version").value(2))
+				.andExpect(jsonPath("$[0].summary").value("updated summary"))
+				.andExpect(jsonPath("$[1].version").value(1))
+				.andExpect(jsonPath("$[1].summary").value("original summary"));
+	}
+
+	@Test
+	void revisionsOfAnUnknownContractAre404() throws Exception {
+		mockMvc.perform(get("/api/contracts/{id}/revisions", "no-such-contract"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(multipart("/api/contracts/{id}/revisions", "no-such-contract").file(pdf()))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void revisionSavedByAnotherRequestInBetweenIs409() throws Exception {
+		String id = contractStore.save(original());
+		when(pdfService.extractText(any())).thenReturn(TERMINATION + "\n\n" + PAYMENT + " Late fees apply.");
+		when(llmService.updateSummary(anyString(), anyString())).thenReturn("updated summary");
+		// While this upload is being classified, another revision of the contract gets saved
+		when(clauseClassifierService.classifyClause(anyString())).thenAnswer(invocation -> {
+			StoredContract current = contractStore.getWithHistory(id);
+			StoredContract other = new StoredContract(current.getFullText(), current.getClauses());
+			other.setVersion(current.getVersion() + 1);
+			contractStore.update(id, other);
+			return "Payment";
+		});
+
+		mockMvc.perform(multipart("/api/contracts/{id}/revisions", id).file(pdf()))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.error", containsString("no longer at version 1")));
+	}
+
+	private StoredContract original() {
+		Clause termination = new Clause("clause-1", "Termination For Convenience", TERMINATION);
+		termination.setHash(clauseDiffService.hash(TERMINATION));
+		Clause payment = new Clause("clause-2", "Payment", PAYMENT);
+		payment.setHash(clauseDiffService.hash(PAYMENT));
+		StoredContract contract = new StoredContract(TERMINATION + "\n\n" + PAYMENT, List.of(termination, payment));
+		contract.setSummary("original summary");
+		return contract;
+	}
+
+	private static MockMultipartFile pdf() {
+		return new MockMultipartFile("file", "contract-v2.pdf", "application/pdf", new byte[]{1});
+	}
+}
@@ -0,0 +1,94 @@
+package com.abhi.contract_explainer.service;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.ClauseChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClauseDiffServiceTests {
+
+	private final ClauseDiffService service = new ClauseDiffService();
+
+	@Test
+	void reportsAddedChangedAndRemovedClauses() {
+		List<Clause> old = clauses("Term A", "Payment B", "Liability C", "Notice D");
+		List<String> next = List.of("Term A", "Payment B changed", "Notice D", "Governing law E");
+
+		List<ClauseDiffService.Entry> diff = service.diff(old, next);
+
+		assertEquals(List.of("-", "CHANGED", "REMOVED", "-", "ADDED"), types(diff));
+		assertEquals("clause-2", diff.get(1).getOldClause().getId());
+		assertEquals("clause-3", diff.get(2).getOldClause().getId());
+		assertNull(diff.get(4).getOldClause());
+	}
+
+	@Test
+	void whitespaceOnlyChangesAreUnchanged() {
+		List<Clause> old = clauses("Either party may\nterminate this Agreement.");
+		List<String> next = List.of("Either party  may terminate   this Agreement.  ");
+
+		List<ClauseDiffService.Entry> diff = service.diff(old, next);
+
+		assertEquals(List.of("-"), types(diff));
+		assertEquals(old.get(0).getHash(), diff.get(0).getNewHash());
+	}
+
+	@Test
+	void largeContractWithFewEditsOnlyDiffsTheMiddle() {
+		String[] texts = new String[3000];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = "Paragraph " + i;
+		}
+		List<Clause> old = clauses(texts);
+		List<String> next = new ArrayList<>(List.of(texts));
+		next.set(1200, "Paragraph 1200, amended");
+		next.remove(1800);
+		next.add(2500, "New paragraph");
+
+		List<ClauseDiffService.Entry> diff = service.diff(old, next);
+
+		assertEquals(3001, diff.size());
+		List<String> changes = new ArrayList<>();
+		for (ClauseDiffService.Entry entry : diff) {
+			if (entry.getType() != null) {
+				changes.add(entry.getType() + " " + (entry.getOldClause() == null ? entry.getNewText()
+						: entry.getOldClause().getId()));
+			}
+		}
+		assertEquals(List.of("CHANGED clause-1201", "REMOVED clause-1801", "ADDED New paragraph"), changes);
+	}
+
+	@Test
+	void insertionsAtBothEndsAndIdenticalRevisions() {
+		List<Clause> old = clauses("Term A", "Payment B");
+
+		assertEquals(List.of("ADDED", "-", "-", "ADDED"),
+				types(service.diff(old, List.of("Recitals", "Term A", "Payment B", "Signatures"))));
+		assertEquals(List.of("-", "-"), types(service.diff(old, List.of("Term A", "Payment B"))));
+		assertEquals(List.of("REMOVED", "REMOVED"), types(service.diff(old, List.of())));
+	}
+
+	private List<Clause> clauses(String... texts) {
+		List<Clause> clauses = new ArrayList<>();
+		for (int i = 0; i < texts.length; i++) {
+			Clause clause = new Clause("clause-" + (i + 1), "label", texts[i]);
+			clause.setHash(service.hash(texts[i]));
+			clauses.add(clause);
+		}
+		return clauses;
+	}
+
+	private List<String> types(List<ClauseDiffService.Entry> diff) {
+		List<String> types = new ArrayList<>();
+		for (ClauseDiffService.Entry entry : diff) {
+			ClauseChange.Type type = entry.getType();
+			types.add(type == null ? "-" : type.name());
+		}
+		return types;
+	}
+}
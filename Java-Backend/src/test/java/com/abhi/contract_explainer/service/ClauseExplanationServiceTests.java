@@ -0,0 +1,183 @@
+package com.abhi.contract_explainer.service;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.abhi.contract_explainer.store.InMemoryContractStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClauseExplanationServiceTests {
+
+	private static final String LABELS = "Termination For Convenience,Non-Compete";
+
+	private final InMemoryContractStore store = new InMemoryContractStore();
+	private final LlmService llmService = mock(LlmService.class);
+	private ClauseExplanationService service;
+
+	@AfterEach
+	void shutdown() {
+		if (service != null) {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void explainsOnlyConfiguredLabels() {
+		service = newService(true, 5);
+		when(llmService.isIdle()).thenReturn(true);
+		when(llmService.explainClause(anyString(), anyString())).thenReturn("explained");
+
+		StoredContract contract = contract("Payment", "Termination For Convenience", "Governing Law", "Non-Compete");
+		String id = store.save(contract);
+		service.precompute(id, contract);
+
+		List<Clause> stored = store.getById(id).getClauses();
+		assertNull(stored.get(0).getExplanation());
+		assertEquals("explained", stored.get(1).getExplanation());
+		assertNull(stored.get(2).getExplanation());
+		assertEquals("explained", stored.get(3).getExplanation());
+		verify(llmService, never()).explainClause(eq("Payment"), anyString());
+		verify(llmService, never()).explainClause(eq("Governing Law"), anyString());
+
+		assertTrue(service.isPrecomputedLabel("Non-Compete"));
+		assertFalse(service.isPrecomputedLabel("Payment"));
+	}
+
+	@Test
+	void stopsAtPerContractBudget() {
+		service = newService(true, 2);
+		when(llmService.isIdle()).thenReturn(true);
+		when(llmService.explainClause(anyString(), anyString())).thenReturn("explained");
+
+		StoredContract contract = contract("Non-Compete", "Non-Compete", "Non-Compete");
+		String id = store.save(contract);
+		service.precompute(id, contract);
+
+		List<Clause> stored = store.getById(id).getClauses();
+		assertEquals("explained", stored.get(0).getExplanation());
+		assertEquals("explained", stored.get(1).getExplanation());
+		assertNull(stored.get(2).getExplanation());
+		verify(llmService, times(2)).explainClause(anyString(), anyString());
+	}
+
+	@Test
+	void stopsWhenLlmIsOverloadedAndKeepsWhatItHas() {
+		service = newService(true, 5);
+		when(llmService.isIdle()).thenReturn(true);
+		when(llmService.explainClause(anyString(), anyString()))
+				.thenReturn("first")
+				.thenThrow(new LlmOverloadedException("llama3", LlmPriority.BACKGROUND, 1));
+
+		StoredContract contract = contract("Non-Compete", "Non-Compete", "Non-Compete");
+		String id = store.save(contract);
+		service.precompute(id, contract);
+
+		List<Clause> stored = store.getById(id).getClauses();
+		assertEquals("first", stored.get(0).getExplanation());
+		assertNull(stored.get(1).getExplanation());
+		assertNull(stored.get(2).getExplanation());
+		verify(llmService, times(2)).explainClause(anyString(), anyString());
+	}
+
+	@Test
+	void publishesACopyAndLeavesTheServedInstanceAlone() {
+		service = newService(true, 5);
+		when(llmService.isIdle()).thenReturn(true);
+		when(llmService.explainClause(anyString(), anyString())).thenReturn("explained");
+
+		StoredContract contract = contract("Non-Compete");
+		contract.setSummary("summary");
+		String id = store.save(contract);
+		service.precompute(id, contract);
+
+		StoredContract stored = store.getById(id);
+		assertNotSame(contract, stored);
+		assertEquals("explained", stored.getClauses().get(0).getExplanation());
+		assertEquals("summary", stored.getSummary());
+		assertEquals(contract.getVersion(), stored.getVersion());
+		// The instance /ask threads may be holding was not modified
+		assertNull(contract.getClauses().get(0).getExplanation());
+	}
+
+	@Test
+	void doesNotOverwriteANewerRevision() {
+		service = newService(true, 5);
+		when(llmService.isIdle()).thenReturn(true);
+		when(llmService.explainClause(anyString(), anyString())).thenReturn("explained");
+
+		StoredContract v1 = contract("Non-Compete");
+		String id = store.save(v1);
+		StoredContract v2 = contract("Non-Compete", "Payment");
+		v2.setVersion(2);
+		store.update(id, v2);
+
+		service.precompute(id, v1);
+
+		assertSame(v2, store.getById(id));
+		assertNull(v2.getClauses().get(0).getExplanation());
+	}
+
+	@Test
+	void scheduledContractsArePrecomputedInTheBackground() throws InterruptedException {
+		service = newService(true, 5);
+		when(llmService.isIdle()).thenReturn(true);
+		when(llmService.explainClause(anyString(), anyString())).thenReturn("explained");
+
+		StoredContract contract = contract("Termination For Convenience");
+		String id = store.save(contract);
+		service.schedule(id, contract);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (store.getById(id).getClauses().get(0).getExplanation() == null) {
+			if (System.nanoTime() > deadline) {
+				fail("contract was not precomputed");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void disabledServiceDoesNothing() throws InterruptedException {
+		service = newService(false, 5);
+
+		StoredContract contract = contract("Termination For Convenience");
+		String id = store.save(contract);
+		service.schedule(id, contract);
+		Thread.sleep(100);
+
+		assertFalse(service.isPrecomputedLabel("Termination For Convenience"));
+		assertSame(contract, store.getById(id));
+		verify(llmService, never()).explainClause(anyString(), anyString());
+	}
+
+	private ClauseExplanationService newService(boolean enabled, int maxClausesPerContract) {
+		return new ClauseExplanationService(llmService, store, enabled, LABELS, maxClausesPerContract, 20, 10);
+	}
+
+	private static StoredContract contract(String... labels) {
+		List<Clause> clauses = new ArrayList<>();
+		for (int i = 0; i < labels.length; i++) {
+			clauses.add(new Clause("clause-" + (i + 1), labels[i], "Text of clause " + (i + 1)));
+		}
+		return new StoredContract("full text", clauses);
+	}
+}
@@ -0,0 +1,57 @@
+package com.abhi.contract_explainer.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClauseSelectionServiceTests {
+
+	private final ClauseSelectionService service = new ClauseSelectionService(new MockEnvironment());
+
+	@Test
+	void questionMatchesLabelOnWordForms() {
+		assertTrue(service.questionMatchesLabel("Can I terminate this early?", "Termination For Convenience"));
+		assertTrue(service.questionMatchesLabel("Am I allowed to work for competitors?", "Non-Compete"));
+		assertTrue(service.questionMatchesLabel("Is there a liability cap?", "Cap On Liability"));
+		assertTrue(service.questionMatchesLabel("Can the contract be cancelled by them?", "Termination For Convenience"));
+		assertTrue(service.questionMatchesLabel("Can they end the agreement whenever they want?", "Termination For Convenience"));
+		assertTrue(service.questionMatchesLabel("Is the non-compete enforceable?", "Non-Compete"));
+	}
+
+	@Test
+	void labelsWithoutKeywordListNeverMatch() {
+		assertFalse(service.questionMatchesLabel("Can I renew on the same terms?", "Renewal Term"));
+		assertFalse(service.questionMatchesLabel("Which state governs this contract?", "Governing Law"));
+	}
+
+	@Test
+	void keywordsComeFromConfiguration() {
+		ClauseSelectionService configured = new ClauseSelectionService(new MockEnvironment()
+				.withProperty("precompute.explanations.keywords.governing-law", "governs, governing law, jurisdiction")
+				.withProperty("precompute.explanations.keywords.termination-for-convenience", "walk away"));
+
+		assertTrue(configured.questionMatchesLabel("Which state governs this contract?", "Governing Law"));
+		assertFalse(configured.questionMatchesLabel("Who pays for shipping?", "Governing Law"));
+		// A configured list replaces the built-in one
+		assertTrue(configured.questionMatchesLabel("Can I walk away from this?", "Termination For Convenience"));
+		assertFalse(configured.questionMatchesLabel("Can I terminate this early?", "Termination For Convenience"));
+	}
+
+	@Test
+	void sharedPrefixIsNotAMatch() {
+		assertFalse(service.questionMatchesLabel("What compensation do I get?", "Non-Compete"));
+		assertFalse(service.questionMatchesLabel("Can I convert to a monthly plan?", "Termination For Convenience"));
+		assertFalse(service.questionMatchesLabel("Is this conversation confidential?", "Termination For Convenience"));
+		assertFalse(service.questionMatchesLabel("Who is the termite inspector?", "Termination For Convenience"));
+		assertFalse(service.questionMatchesLabel("Is the capital requirement met?", "Cap On Liability"));
+	}
+
+	@Test
+	void questionDoesNotMatchUnrelatedLabel() {
+		assertFalse(service.questionMatchesLabel("How much do I get paid?", "Termination For Convenience"));
+		assertFalse(service.questionMatchesLabel("Is this for me?", "Termination For Convenience"));
+		assertFalse(service.questionMatchesLabel(null, "Non-Compete"));
+	}
+}
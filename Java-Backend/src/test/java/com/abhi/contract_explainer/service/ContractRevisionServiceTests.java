@@ -0,0 +1,256 @@
+package com.abhi.contract_explainer.service;
+
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.ContractRevision;
+import com.abhi.contract_explainer.model.RevisionResponse;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.abhi.contract_explainer.store.InMemoryContractStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ContractRevisionServiceTests {
+
+	private static final String TERMINATION = "Either party may terminate this Agreement with 30 days written notice.";
+	private static final String PAYMENT = "The Customer shall pay all invoices within 30 days of receipt.";
+	private static final String LIABILITY = "Neither party's total liability shall exceed the fees paid in the last year.";
+	private static final String LAW = "This Agreement is governed by the laws of the State of New York.";
+	private static final String NOTICE = "Notices must be given in writing to the addresses set out above.";
+	private static final String ASSIGNMENT = "Neither party may assign this Agreement without prior written consent.";
+	private static final String CONFIDENTIALITY = "Each party shall keep the other party's confidential information secret.";
+
+	private final InMemoryContractStore store = new InMemoryContractStore();
+	private final ClauseDiffService diffService = new ClauseDiffService();
+	private final LlmService llmService = mock(LlmService.class);
+	private final ClauseClassifierService classifier = mock(ClauseClassifierService.class);
+
+	private final ContractRevisionService service = new ContractRevisionService(
+			new ClauseService(), diffService, classifier, llmService, store,
+			new ClauseExplanationService(llmService, store, false, "", 5, 20, 500),
+			20, 0.5);
+
+	@Test
+	void onlyAddedAndChangedClausesGoToTheClassifier() {
+		String id = store.save(sixClauses());
+		when(classifier.classifyClause(CONFIDENTIALITY)).thenReturn("Confidentiality");
+		when(classifier.classifyClause(PAYMENT + " Late fees apply.")).thenReturn("Payment");
+		when(llmService.updateSummary(anyString(), anyString())).thenReturn("updated summary");
+
+		// Added at the top, payment changed, liability removed, the rest unchanged
+		RevisionResponse response = service.ingestRevision(id, store.getWithHistory(id),
+				text(CONFIDENTIALITY, TERMINATION, PAYMENT + " Late fees apply.", LAW, NOTICE, ASSIGNMENT));
+
+		verify(classifier).classifyClause(CONFIDENTIALITY);
+		verify(classifier).classifyClause(PAYMENT + " Late fees apply.");
+		verifyNoMoreInteractions(classifier);
+
+		// Change report
+		assertEquals(2, response.getVersion());
+		assertEquals("updated summary", response.getSummary());
+		assertEquals(4, response.getUnchangedClauses());
+		assertEquals(2, response.getReclassifiedClauses());
+		assertEquals(List.of(
+						"ADDED null->clause-1 Confidentiality",
+						"CHANGED clause-2->clause-3 Payment",
+						"REMOVED clause-3->null Cap On Liability"),
+				response.getChanges().stream()
+						.map(c -> c.getType() + " " + c.getOldClauseId() + "->" + c.getNewClauseId() + " " + c.getLabel())
+						.toList());
+
+		// Unchanged clauses keep label, explanation and hash
+		StoredContract stored = store.getWithHistory(id);
+		Clause termination = stored.getClauses().get(1);
+		assertEquals("clause-2", termination.getId());
+		assertEquals("Termination For Convenience", termination.getLabel());
+		assertEquals("You can end it with 30 days notice.", termination.getExplanation());
+		assertEquals(diffService.hash(TERMINATION), termination.getHash());
+		assertEquals(diffService.hash(CONFIDENTIALITY), stored.getClauses().get(0).getHash());
+		assertNull(stored.getClauses().get(2).getExplanation());
+
+		// 3 of 6 clauses changed: incremental summary from the changes only
+		ArgumentCaptor<String> changed = ArgumentCaptor.forClass(String.class);
+		verify(llmService).updateSummary(eq("original summary"), changed.capture());
+		verify(llmService, never()).summarizeContract(anyString());
+		assertTrue(changed.getValue().contains("ADDED clause (Confidentiality):\n" + CONFIDENTIALITY), changed.getValue());
+		assertTrue(changed.getValue().contains("Before:\n" + PAYMENT + "\nAfter:\n" + PAYMENT + " Late fees apply."));
+		assertTrue(changed.getValue().contains("REMOVED clause (Cap On Liability):\n" + LIABILITY));
+		assertFalse(changed.getValue().contains(NOTICE));
+
+		assertEquals(1, stored.getRevisions().size());
+		assertEquals("original summary", stored.getRevisions().get(0).getSummary());
+	}
+
+	@Test
+	void revisionWithoutChangesMakesNoLlmCall() {
+		String id = store.save(sixClauses());
+		StoredContract v1 = store.getWithHistory(id);
+
+		RevisionResponse response = service.ingestRevision(id, v1, v1.getFullText());
+
+		verifyNoInteractions(classifier, llmService);
+		assertEquals(2, response.getVersion());
+		assertEquals("original summary", response.getSummary());
+		assertEquals(List.of(), response.getChanges());
+		assertEquals(6, response.getUnchangedClauses());
+		assertEquals(0, response.getReclassifiedClauses());
+	}
+
+	@Test
+	void mostlyChangedContractIsResummarizedFromTheFullText() {
+		String id = store.save(sixClauses());
+		when(classifier.classifyClause(anyString())).thenReturn("Other");
+		when(llmService.summarizeContract(anyString())).thenReturn("new summary");
+
+		// 4 of 6 clauses changed: above the 0.5 ratio
+		String fullText = text(TERMINATION + " Amended.", PAYMENT + " Amended.", LIABILITY + " Amended.",
+				LAW + " Amended.", NOTICE, ASSIGNMENT);
+		RevisionResponse response = service.ingestRevision(id, store.getWithHistory(id), fullText);
+
+		verify(llmService).summarizeContract(fullText);
+		verify(llmService, never()).updateSummary(anyString(), anyString());
+		assertEquals("new summary", response.getSummary());
+		verify(classifier, times(4)).classifyClause(anyString());
+	}
+
+	@Test
+	void historyIsTrimmedToMaxHistory() {
+		ContractRevisionService keepTwo = new ContractRevisionService(
+				new ClauseService(), diffService, classifier, llmService, store,
+				new ClauseExplanationService(llmService, store, false, "", 5, 20, 500),
+				2, 0.5);
+		String id = store.save(original());
+		when(classifier.classifyClause(anyString())).thenReturn("Payment");
+		when(llmService.updateSummary(anyString(), anyString())).thenAnswer(
+				invocation -> "summary after " + invocation.getArgument(1, String.class).length());
+
+		for (int i = 1; i <= 4; i++) {
+			keepTwo.ingestRevision(id, store.getWithHistory(id), text(TERMINATION, PAYMENT + " Change " + i + "."));
+		}
+
+		StoredContract stored = store.getWithHistory(id);
+		assertEquals(5, stored.getVersion());
+		assertEquals(List.of(3, 4), stored.getRevisions().stream().map(ContractRevision::getVersion).toList());
+		// getById (the /ask path) may leave the history out, getWithHistory keeps it
+		assertEquals(2, store.getWithHistory(id).getRevisions().size());
+	}
+
+	@Test
+	void concurrentRevisionsOfTheSameVersionCannotBothWin() throws Exception {
+		String id = store.save(original());
+		when(classifier.classifyClause(anyString())).thenReturn("Payment");
+
+		// Both revisions get past the diff + summary step before either one saves
+		CyclicBarrier bothBuilt = new CyclicBarrier(2);
+		when(llmService.updateSummary(anyString(), anyString())).thenAnswer(invocation -> {
+			bothBuilt.await(5, TimeUnit.SECONDS);
+			return "updated summary";
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<RevisionResponse> first = pool.submit(() ->
+					service.ingestRevision(id, store.getWithHistory(id), text(TERMINATION, PAYMENT + " Late fees apply.")));
+			Future<RevisionResponse> second = pool.submit(() ->
+					service.ingestRevision(id, store.getWithHistory(id), text(TERMINATION, PAYMENT + " No late fees.")));
+
+			List<Object> outcomes = new ArrayList<>();
+			for (Future<RevisionResponse> future : List.of(first, second)) {
+				try {
+					outcomes.add(future.get(10, TimeUnit.SECONDS));
+				} catch (ExecutionException e) {
+					outcomes.add(e.getCause());
+				}
+			}
+
+			assertEquals(1, outcomes.stream().filter(RevisionResponse.class::isInstance).count());
+			assertEquals(1, outcomes.stream().filter(ContractConflictException.class::isInstance).count());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		StoredContract stored = store.getWithHistory(id);
+		assertEquals(2, stored.getVersion());
+		assertEquals(1, stored.getRevisions().size());
+		assertEquals(1, stored.getRevisions().get(0).getVersion());
+
+		// The loser re-uploads against the new current version and becomes v3
+		// (doReturn: when(...) would run the barrier answer once more)
+		doReturn("updated again").when(llmService).updateSummary(anyString(), anyString());
+		RevisionResponse retried = service.ingestRevision(id, stored, text(TERMINATION, PAYMENT + " No late fees."));
+		assertEquals(3, retried.getVersion());
+		assertEquals(2, store.getWithHistory(id).getRevisions().size());
+	}
+
+	@Test
+	void revisionBasedOnAnOldVersionIsRejected() {
+		String id = store.save(original());
+		StoredContract v1 = store.getWithHistory(id);
+
+		StoredContract v2 = new StoredContract(v1.getFullText(), v1.getClauses());
+		v2.setVersion(2);
+		store.update(id, v2);
+
+		// v1 still has a summary and nothing changed, so no LLM call is needed
+		assertThrows(ContractConflictException.class,
+				() -> service.ingestRevision(id, v1, v1.getFullText()));
+		assertEquals(2, store.getById(id).getVersion());
+	}
+
+	private StoredContract original() {
+		List<Clause> clauses = new ArrayList<>();
+		clauses.add(clause("clause-1", "Termination For Convenience", TERMINATION));
+		clauses.add(clause("clause-2", "Payment", PAYMENT));
+		StoredContract contract = new StoredContract(text(TERMINATION, PAYMENT), clauses);
+		contract.setSummary("original summary");
+		return contract;
+	}
+
+	private StoredContract sixClauses() {
+		List<Clause> clauses = new ArrayList<>();
+		Clause termination = clause("clause-1", "Termination For Convenience", TERMINATION);
+		termination.setExplanation("You can end it with 30 days notice.");
+		clauses.add(termination);
+		clauses.add(clause("clause-2", "Payment", PAYMENT));
+		clauses.add(clause("clause-3", "Cap On Liability", LIABILITY));
+		clauses.add(clause("clause-4", "Governing Law", LAW));
+		clauses.add(clause("clause-5", "Notice", NOTICE));
+		clauses.add(clause("clause-6", "Assignment", ASSIGNMENT));
+		StoredContract contract = new StoredContract(text(TERMINATION, PAYMENT, LIABILITY, LAW, NOTICE, ASSIGNMENT), clauses);
+		contract.setSummary("original summary");
+		return contract;
+	}
+
+	private Clause clause(String id, String label, String text) {
+		Clause clause = new Clause(id, label, text);
+		clause.setHash(diffService.hash(text));
+		return clause;
+	}
+
+	private static String text(String... clauses) {
+		return String.join("\n\n", clauses);
+	}
+}
@@ -0,0 +1,242 @@
+package com.abhi.contract_explainer.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class LlmSchedulerTests {
+
+	@Test
+	void queuedCallsRunInPriorityOrder() throws Exception {
+		LlmScheduler scheduler = new LlmScheduler(new MockEnvironment());
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+
+		// Occupy the single slot so the next calls have to queue
+		Thread holder = new Thread(() -> scheduler.submit("m", LlmPriority.SUMMARY, () -> {
+			await(release);
+			return null;
+		}));
+		holder.start();
+		waitForActive(scheduler, 1);
+
+		Thread background = submitAsync(scheduler, LlmPriority.BACKGROUND, order);
+		waitForQueued(scheduler, 1);
+		Thread interactive = submitAsync(scheduler, LlmPriority.INTERACTIVE, order);
+		waitForQueued(scheduler, 2);
+
+		release.countDown();
+		holder.join();
+		background.join();
+		interactive.join();
+
+		assertEquals(List.of("INTERACTIVE", "BACKGROUND"), order);
+	}
+
+	@Test
+	void rejectsWhenQueueForPriorityIsFull() throws Exception {
+		MockEnvironment env = new MockEnvironment()
+				.withProperty("llm.scheduler.queue-depth.background", "0");
+		LlmScheduler scheduler = new LlmScheduler(env);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Thread holder = new Thread(() -> scheduler.submit("m", LlmPriority.SUMMARY, () -> {
+			await(release);
+			return null;
+		}));
+		holder.start();
+		waitForActive(scheduler, 1);
+
+		LlmOverloadedException e = assertThrows(LlmOverloadedException.class,
+				() -> scheduler.submit("m", LlmPriority.BACKGROUND, () -> "never"));
+		assertEquals(LlmPriority.BACKGROUND, e.getPriority());
+		assertTrue(e.getRetryAfterSeconds() >= 1);
+
+		release.countDown();
+		holder.join();
+	}
+
+	@Test
+	void interruptedWhileQueuedLeavesTheQueue() throws Exception {
+		LlmScheduler scheduler = new LlmScheduler(new MockEnvironment());
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+
+		Thread holder = new Thread(() -> scheduler.submit("m", LlmPriority.SUMMARY, () -> {
+			await(release);
+			return null;
+		}));
+		holder.start();
+		waitForActive(scheduler, 1);
+
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread interrupted = submitAsync(scheduler, LlmPriority.INTERACTIVE, order, failure);
+		waitForQueued(scheduler, 1);
+		Thread background = submitAsync(scheduler, LlmPriority.BACKGROUND, order, null);
+		waitForQueued(scheduler, 2);
+
+		interrupted.interrupt();
+		interrupted.join(5000);
+		assertEquals(1, lane(scheduler, "queued"));
+		assertEquals(0, priority(scheduler, "interactive", "queueDepth"));
+
+		// The freed slot goes to the remaining waiter, not to the interrupted one
+		release.countDown();
+		holder.join(5000);
+		background.join(5000);
+
+		assertTrue(failure.get() instanceof RuntimeException);
+		assertEquals(List.of("BACKGROUND"), order);
+		assertEquals(0, lane(scheduler, "active"));
+		assertTrue(scheduler.isIdle("m"));
+	}
+
+	@Test
+	void interruptedAfterSlotWasGrantedHandsItOn() throws Exception {
+		LlmScheduler scheduler = new LlmScheduler(new MockEnvironment());
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+
+		Thread holder = new Thread(() -> scheduler.submit("m", LlmPriority.SUMMARY, () -> {
+			await(release);
+			return null;
+		}));
+		holder.start();
+		waitForActive(scheduler, 1);
+
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread granted = submitAsync(scheduler, LlmPriority.INTERACTIVE, order, failure);
+		waitForQueued(scheduler, 1);
+		Thread next = submitAsync(scheduler, LlmPriority.BACKGROUND, order, null);
+		waitForQueued(scheduler, 2);
+
+		// When the holder releases its slot, interrupt the first waiter and let it
+		// leave the wait set (it then blocks on the lane's monitor) before the slot
+		// is handed to it: it wakes up with InterruptedException and granted == true,
+		// and must pass the slot on
+		AtomicReference<Thread.State> waiterState = new AtomicReference<>();
+		scheduler.beforeRelease = () -> {
+			scheduler.beforeRelease = null;
+			granted.interrupt();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (granted.getState() != Thread.State.BLOCKED && System.nanoTime() < deadline) {
+				Thread.onSpinWait();
+			}
+			waiterState.set(granted.getState());
+		};
+		release.countDown();
+		holder.join(5000);
+		granted.join(5000);
+		next.join(5000);
+
+		assertEquals(Thread.State.BLOCKED, waiterState.get());
+
+		assertTrue(failure.get() instanceof RuntimeException);
+		assertEquals(List.of("BACKGROUND"), order);
+		assertEquals(0, lane(scheduler, "active"));
+		assertEquals(0, lane(scheduler, "queued"));
+	}
+
+	@Test
+	void metricsCountAdmittedRejectedAndQueued() throws Exception {
+		MockEnvironment env = new MockEnvironment()
+				.withProperty("llm.scheduler.queue-depth.summary", "1");
+		LlmScheduler scheduler = new LlmScheduler(env);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Thread holder = new Thread(() -> scheduler.submit("m", LlmPriority.INTERACTIVE, () -> {
+			await(release);
+			return null;
+		}));
+		holder.start();
+		waitForActive(scheduler, 1);
+
+		Thread queued = submitAsync(scheduler, LlmPriority.SUMMARY, new CopyOnWriteArrayList<>(), null);
+		waitForQueued(scheduler, 1);
+		assertThrows(LlmOverloadedException.class,
+				() -> scheduler.submit("m", LlmPriority.SUMMARY, () -> "never"));
+
+		assertEquals(1, priority(scheduler, "summary", "queueDepth"));
+		assertEquals(1, priority(scheduler, "summary", "queueLimit"));
+		assertEquals(1L, priority(scheduler, "summary", "rejected"));
+		assertEquals(1L, priority(scheduler, "interactive", "admitted"));
+
+		release.countDown();
+		holder.join(5000);
+		queued.join(5000);
+
+		assertEquals(0, priority(scheduler, "summary", "queueDepth"));
+		assertEquals(1L, priority(scheduler, "summary", "admitted"));
+		assertEquals(0L, priority(scheduler, "background", "admitted"));
+	}
+
+	private static Thread submitAsync(LlmScheduler scheduler, LlmPriority priority, List<String> order) {
+		return submitAsync(scheduler, priority, order, null);
+	}
+
+	private static Thread submitAsync(LlmScheduler scheduler, LlmPriority priority, List<String> order,
+									  AtomicReference<Throwable> failure) {
+		Thread t = new Thread(() -> {
+			try {
+				scheduler.submit("m", priority, () -> order.add(priority.name()));
+			} catch (RuntimeException e) {
+				if (failure != null) {
+					failure.set(e);
+				}
+			}
+		});
+		t.start();
+		return t;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object priority(LlmScheduler scheduler, String priority, String key) {
+		Map<String, Object> lane = (Map<String, Object>) scheduler.metrics().get("m");
+		Map<String, Object> priorities = (Map<String, Object>) lane.get("priorities");
+		return ((Map<String, Object>) priorities.get(priority)).get(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int lane(LlmScheduler scheduler, String key) {
+		Object lane = scheduler.metrics().get("m");
+		return lane == null ? 0 : (Integer) ((Map<String, Object>) lane).get(key);
+	}
+
+	private static void waitForActive(LlmScheduler scheduler, int expected) throws InterruptedException {
+		waitFor(() -> lane(scheduler, "active") >= expected, "active=" + expected);
+	}
+
+	private static void waitForQueued(LlmScheduler scheduler, int expected) throws InterruptedException {
+		waitFor(() -> lane(scheduler, "queued") >= expected, "queued=" + expected);
+	}
+
+	private static void waitFor(BooleanSupplier condition, String what) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				fail("Timed out waiting for " + what);
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package com.abhi.contract_explainer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap allocated per Ollama call with a multi-MB prompt: the streaming
+ * request/response code in LlmService against the JsonNode tree + String
+ * body version it replaced (copied below as TreeJsonOllamaClient).
+ *
+ * Both talk to the same in-process stub Ollama. Allocation is counted with
+ * ThreadMXBean.getThreadAllocatedBytes over every thread except the stub's,
+ * so the HttpClient's own threads are included. Run with -Pbenchmark.
+ */
+@Tag("benchmark")
+class LlmServiceAllocationTests {
+
+	private static final Logger log = LoggerFactory.getLogger(LlmServiceAllocationTests.class);
+
+	private static final int CONTRACT_CHARS = 4 * 1024 * 1024;
+	private static final int RUNS = 7;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void streamingCallAllocatesLessThanTheTreeBasedOne() throws Exception {
+		HttpServer stub = startStubOllama();
+		try {
+			String url = "http://localhost:" + stub.getAddress().getPort() + "/api/chat";
+			LlmService streaming = new LlmService(objectMapper, new LlmScheduler(new MockEnvironment()), url);
+			TreeJsonOllamaClient tree = new TreeJsonOllamaClient(objectMapper, url);
+
+			String contract = contractText();
+
+			long streamingBytes = medianAllocation(() -> streaming.summarizeContract(contract));
+			long treeBytes = medianAllocation(() -> tree.summarizeContract(contract));
+			// Both build the same prompt String first; the template's en dash makes it 2 bytes/char
+			long promptBytes = 2L * contract.length();
+
+			String report = String.format("Bytes allocated per summarizeContract call, %d char contract: "
+							+ "tree+String %.1f MB, streaming %.1f MB (%.0f%% less); "
+							+ "without the %.1f MB prompt String: %.1f MB vs %.1f MB",
+					contract.length(), treeBytes / 1e6, streamingBytes / 1e6,
+					100.0 * (treeBytes - streamingBytes) / treeBytes, promptBytes / 1e6,
+					(treeBytes - promptBytes) / 1e6, (streamingBytes - promptBytes) / 1e6);
+			log.info(report);
+			assertTrue(streamingBytes < treeBytes, report);
+		} finally {
+			stub.stop(0);
+		}
+	}
+
+	// Median over RUNS calls, after the same number of warm-up calls
+	private long medianAllocation(Supplier<String> call) {
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals("stub summary", call.get());
+		}
+		long[] allocated = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long before = allocatedOutsideStub();
+			call.get();
+			allocated[i] = allocatedOutsideStub() - before;
+		}
+		Arrays.sort(allocated);
+		return allocated[RUNS / 2];
+	}
+
+	private static long allocatedOutsideStub() {
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long[] ids = threads.getAllThreadIds();
+		ThreadInfo[] infos = threads.getThreadInfo(ids);
+		long[] allocated = threads.getThreadAllocatedBytes(ids);
+		long total = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (infos[i] != null && !infos[i].getThreadName().startsWith("stub-ollama") && allocated[i] > 0) {
+				total += allocated[i];
+			}
+		}
+		return total;
+	}
+
+	private static String contractText() {
+		StringBuilder text = new StringBuilder(CONTRACT_CHARS + 100);
+		int clause = 1;
+		while (text.length() < CONTRACT_CHARS) {
+			text.append(clause++).append(". The Supplier shall deliver the goods described in Schedule A ")
+					.append("within 30 days of the order date, and \"delivery\" means handover at the site.\n\n");
+		}
+		return text.toString();
+	}
+
+	private static HttpServer startStubOllama() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		AtomicInteger threadCount = new AtomicInteger();
+		server.setExecutor(Executors.newCachedThreadPool(
+				runnable -> new Thread(runnable, "stub-ollama-" + threadCount.incrementAndGet())));
+		byte[] response = "{\"model\":\"llama3\",\"message\":{\"role\":\"assistant\",\"content\":\"stub summary\"},\"done\":true}"
+				.getBytes(StandardCharsets.UTF_8);
+		server.createContext("/api/chat", exchange -> {
+			exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		});
+		server.start();
+		return server;
+	}
+
+	/**
+	 * The request/response handling LlmService had before StreamingJson:
+	 * ObjectNode tree -> String body -> BodyPublishers.ofString, and the
+	 * response read as a String and parsed into a JsonNode tree.
+	 */
+	private static final class TreeJsonOllamaClient {
+
+		private final HttpClient httpClient = HttpClient.newHttpClient();
+		private final ObjectMapper objectMapper;
+		private final String ollamaUrl;
+
+		TreeJsonOllamaClient(ObjectMapper objectMapper, String ollamaUrl) {
+			this.objectMapper = objectMapper;
+			this.ollamaUrl = ollamaUrl;
+		}
+
+		String summarizeContract(String contractText) {
+			String prompt = """
+					You are a helpful assistant that explains contracts in simple language.
+					Summarize the following contract for a non-lawyer in 5–8 bullet points.
+					Focus on: obligations, payments, duration, termination, and any penalties.
+					Always add: "This is not legal advice." at the end.
+
+					Contract text:
+					""" + contractText;
+			return sendToOllama(prompt);
+		}
+
+		private String sendToOllama(String prompt) {
+			try {
+				ObjectNode root = objectMapper.createObjectNode();
+				root.put("model", "llama3");
+				root.put("stream", false);
+
+				ArrayNode messages = objectMapper.createArrayNode();
+				ObjectNode systemMsg = objectMapper.createObjectNode();
+				systemMsg.put("role", "system");
+				systemMsg.put("content", "You are a contract and policy explainer for non-lawyers.");
+				messages.add(systemMsg);
+				ObjectNode userMsg = objectMapper.createObjectNode();
+				userMsg.put("role", "user");
+				userMsg.put("content", prompt);
+				messages.add(userMsg);
+				root.set("messages", messages);
+
+				String requestBody = objectMapper.writeValueAsString(root);
+
+				HttpRequest request = HttpRequest.newBuilder()
+						.uri(URI.create(ollamaUrl))
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString(requestBody))
+						.build();
+
+				HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+				if (response.statusCode() != 200) {
+					throw new RuntimeException("Ollama API error: HTTP " + response.statusCode() + " - " + response.body());
+				}
+
+				JsonNode json = objectMapper.readTree(response.body());
+				return json.get("message").get("content").asText();
+			} catch (IOException | InterruptedException e) {
+				throw new RuntimeException("Error calling Ollama LLM API", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.abhi.contract_explainer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmServiceTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicReference<String> lastPrompt = new AtomicReference<>();
+
+	private HttpServer stubOllama;
+	private LlmService llmService;
+
+	@BeforeEach
+	void startStubOllama() throws IOException {
+		stubOllama = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		byte[] response = "{\"message\":{\"role\":\"assistant\",\"content\":\"stub answer\"},\"done\":true}"
+				.getBytes(StandardCharsets.UTF_8);
+		stubOllama.createContext("/api/chat", exchange -> {
+			lastPrompt.set(objectMapper.readTree(exchange.getRequestBody())
+					.get("messages").get(1).get("content").asText());
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		});
+		stubOllama.start();
+
+		String url = "http://localhost:" + stubOllama.getAddress().getPort() + "/api/chat";
+		llmService = new LlmService(objectMapper, new LlmScheduler(new MockEnvironment()), url);
+	}
+
+	@AfterEach
+	void stopStubOllama() {
+		stubOllama.stop(0);
+	}
+
+	@Test
+	void explainClauseKeepsTheSpaceBeforeTheLabel() {
+		assertEquals("stub answer", llmService.explainClause("Termination", "Either party may terminate."));
+
+		assertTrue(lastPrompt.get().contains("Clause type: Termination\n"), lastPrompt.get());
+		assertTrue(lastPrompt.get().endsWith("Clause text:\nEither party may terminate."), lastPrompt.get());
+	}
+
+	@Test
+	void answerQuestionKeepsTheSpaceBeforeTheQuestion() {
+		assertEquals("stub answer", llmService.answerQuestion("The term is 12 months.", "How long is the term?"));
+
+		assertTrue(lastPrompt.get().contains("Contract excerpt:\nThe term is 12 months.\n"), lastPrompt.get());
+		assertTrue(lastPrompt.get().endsWith("User question: How long is the term?"), lastPrompt.get());
+	}
+}
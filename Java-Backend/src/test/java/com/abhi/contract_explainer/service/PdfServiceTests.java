@@ -0,0 +1,164 @@
+package com.abhi.contract_explainer.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfServiceTests {
+
+	@TempDir
+	Path spoolDir;
+
+	@Test
+	void extractsTextThroughSpoolFileAndDeletesIt() throws IOException {
+		PdfService service = new PdfService(spoolDir, DataSize.ofMegabytes(10), 2, 1);
+		service.cleanSpoolDir();
+
+		MockMultipartFile file = new MockMultipartFile("file", "contract.pdf",
+				"application/pdf", pdfWithText("Either party may terminate this Agreement."));
+
+		String text = service.extractText(file);
+
+		assertTrue(text.contains("Either party may terminate this Agreement."), text);
+		try (Stream<Path> left = Files.list(spoolDir)) {
+			assertEquals(0, left.count());
+		}
+	}
+
+	@Test
+	void largeUploadGoesThroughSpoolFileAndLeavesNothingBehind() throws IOException {
+		// 512 byte threshold, one slot, no waiting: a leaked slot would fail the next upload
+		PdfService service = new PdfService(spoolDir, DataSize.ofBytes(512), 1, 0);
+		service.cleanSpoolDir();
+
+		String[] lines = new String[40];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = "Clause " + i + ": the Supplier shall deliver the goods on time.";
+		}
+		byte[] pdf = pdfWithText(lines);
+		assertTrue(pdf.length >= 512, "test PDF is not large: " + pdf.length + " bytes");
+
+		for (int round = 0; round < 2; round++) {
+			List<Path> spooled = new ArrayList<>();
+			MockMultipartFile file = new MockMultipartFile("file", "large.pdf", "application/pdf", pdf) {
+				@Override
+				public void transferTo(File dest) throws IOException {
+					spooled.add(dest.toPath());
+					super.transferTo(dest);
+				}
+			};
+
+			String text = service.extractText(file);
+
+			assertTrue(text.contains("Clause 39: the Supplier shall deliver the goods on time."), text);
+			assertEquals(1, spooled.size());
+			assertEquals(spoolDir, spooled.get(0).getParent());
+			assertNoLeftovers();
+		}
+
+		// A broken large upload fails, but still cleans up and frees its slot
+		MockMultipartFile broken = new MockMultipartFile("file", "broken.pdf", "application/pdf", new byte[2048]);
+		assertThrows(IOException.class, () -> service.extractText(broken));
+		assertNoLeftovers();
+		assertTrue(service.extractText(new MockMultipartFile("file", "large.pdf", "application/pdf", pdf))
+				.contains("Clause 0"));
+	}
+
+	@Test
+	void rejectsLargeUploadWhenAllSlotsAreBusy() throws Exception {
+		// threshold 0 bytes: every upload counts as large, one slot, no waiting
+		PdfService service = new PdfService(spoolDir, DataSize.ofBytes(0), 1, 0);
+		service.cleanSpoolDir();
+
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		MockMultipartFile blocking = new MockMultipartFile("file", "a.pdf", "application/pdf",
+				pdfWithText("first")) {
+			@Override
+			public void transferTo(File dest) throws IOException {
+				// Only reached once the slot is taken
+				holding.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.transferTo(dest);
+			}
+		};
+		AtomicReference<Object> firstResult = new AtomicReference<>();
+		Thread first = new Thread(() -> {
+			try {
+				firstResult.set(service.extractText(blocking));
+			} catch (Exception e) {
+				firstResult.set(e);
+			}
+		});
+		first.start();
+		assertTrue(holding.await(5, TimeUnit.SECONDS), "first upload never took the slot");
+
+		MockMultipartFile second = new MockMultipartFile("file", "b.pdf", "application/pdf",
+				pdfWithText("second"));
+		try {
+			UploadsBusyException e = assertThrows(
+					UploadsBusyException.class, () -> service.extractText(second));
+			assertEquals(1, e.getRetryAfterSeconds());
+		} finally {
+			release.countDown();
+			first.join(5000);
+		}
+
+		assertTrue(String.valueOf(firstResult.get()).contains("first"), String.valueOf(firstResult.get()));
+		// Slot is free again
+		assertTrue(service.extractText(second).contains("second"));
+		assertNoLeftovers();
+	}
+
+	private void assertNoLeftovers() throws IOException {
+		try (Stream<Path> left = Files.list(spoolDir)) {
+			assertEquals(List.of(), left.toList());
+		}
+	}
+
+	private static byte[] pdfWithText(String... lines) throws IOException {
+		try (PDDocument document = new PDDocument()) {
+			PDPage page = new PDPage();
+			document.addPage(page);
+			try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+				content.beginText();
+				content.setFont(PDType1Font.HELVETICA, 12);
+				content.setLeading(14);
+				content.newLineAtOffset(72, 700);
+				for (String line : lines) {
+					content.showText(line);
+					content.newLine();
+				}
+				content.endText();
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			document.save(out);
+			return out.toByteArray();
+		}
+	}
+}
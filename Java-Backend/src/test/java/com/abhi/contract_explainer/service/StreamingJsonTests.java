@@ -0,0 +1,162 @@
+package com.abhi.contract_explainer.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingJsonTests {
+
+	private final JsonFactory factory = new JsonFactory();
+
+	@Test
+	void readsNestedFieldAndSkipsEverythingElse() throws IOException {
+		String json = """
+				{"model":"llama3","context":[1,2,3],"meta":{"content":"wrong"},
+				 "message":{"role":"assistant","content":"the answer"},"done":true}
+				""";
+
+		assertEquals("the answer", read(json, "message", "content"));
+	}
+
+	@Test
+	void returnsNullWhenPathIsMissing() throws IOException {
+		assertNull(read("{\"scores\":{\"label\":\"nested\"}}", "label"));
+		assertNull(read("{\"message\":\"not an object\"}", "message", "content"));
+	}
+
+	@Test
+	void bodyPublisherSendsExactlyWhatTheGeneratorWrote() throws Exception {
+		// Several chunks plus a partial last one, with multi-byte characters on the way
+		String content = "Clause 7.1 \u00a7 termination \u20ac \"quoted\"\n".repeat(1500);
+		StreamingJson.BodyWriter writer = json -> {
+			json.writeStartObject();
+			json.writeStringField("model", "llama3");
+			json.writeArrayFieldStart("messages");
+			json.writeStartObject();
+			json.writeStringField("content", content);
+			json.writeEndObject();
+			json.writeEndArray();
+			json.writeEndObject();
+		};
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (JsonGenerator json = factory.createGenerator(expected, JsonEncoding.UTF8)) {
+			writer.write(json);
+		}
+		assertTrue(expected.size() > 3 * StreamingJson.CHUNK_SIZE);
+		assertTrue(expected.size() % StreamingJson.CHUNK_SIZE != 0);
+
+		HttpRequest.BodyPublisher publisher = StreamingJson.bodyPublisher(factory, writer);
+		byte[] published = collect(publisher);
+
+		assertEquals(expected.size(), publisher.contentLength());
+		assertArrayEquals(expected.toByteArray(), published);
+
+		String json = new String(published, StandardCharsets.UTF_8);
+		assertEquals(content, new ObjectMapper().readTree(json).path("messages").get(0).path("content").asText());
+	}
+
+	@Test
+	void chunkedStreamRollsOverForSingleBytesAndArrays() throws IOException {
+		StreamingJson.ChunkedOutputStream out = new StreamingJson.ChunkedOutputStream();
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+		// write(int) up to one byte short of the first chunk
+		for (int i = 0; i < StreamingJson.CHUNK_SIZE - 1; i++) {
+			out.write(i);
+			expected.write(i);
+		}
+		// an array that straddles the boundary
+		byte[] straddling = "0123456789".getBytes(StandardCharsets.US_ASCII);
+		out.write(straddling, 0, straddling.length);
+		expected.write(straddling);
+		// write(int) rolling over into a new chunk exactly at the boundary
+		for (int i = 0; i < StreamingJson.CHUNK_SIZE - 9; i++) {
+			out.write('x');
+			expected.write('x');
+		}
+		out.write('y');
+		expected.write('y');
+
+		List<byte[]> chunks = out.chunks();
+		assertEquals(expected.size(), out.size());
+		assertEquals(3, chunks.size());
+		assertEquals(StreamingJson.CHUNK_SIZE, chunks.get(0).length);
+		assertEquals(StreamingJson.CHUNK_SIZE, chunks.get(1).length);
+		assertEquals(1, chunks.get(2).length);
+		assertArrayEquals(expected.toByteArray(), concat(chunks));
+	}
+
+	@Test
+	void chunkedStreamHasNoEmptyTrailingChunk() {
+		StreamingJson.ChunkedOutputStream out = new StreamingJson.ChunkedOutputStream();
+		assertEquals(0, out.chunks().size());
+
+		byte[] twoChunks = new byte[2 * StreamingJson.CHUNK_SIZE];
+		out.write(twoChunks, 0, twoChunks.length);
+
+		List<byte[]> chunks = out.chunks();
+		assertEquals(2, chunks.size());
+		// chunks() is a snapshot: asking again gives the same result
+		assertEquals(2, out.chunks().size());
+	}
+
+	// Subscribe like the HttpClient does and collect every published buffer
+	private static byte[] collect(HttpRequest.BodyPublisher publisher) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompletableFuture<byte[]> done = new CompletableFuture<>();
+		publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(ByteBuffer item) {
+				byte[] bytes = new byte[item.remaining()];
+				item.get(bytes);
+				out.write(bytes, 0, bytes.length);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				done.completeExceptionally(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				done.complete(out.toByteArray());
+			}
+		});
+		return done.get(5, TimeUnit.SECONDS);
+	}
+
+	private static byte[] concat(List<byte[]> chunks) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		chunks.forEach(chunk -> out.write(chunk, 0, chunk.length));
+		return out.toByteArray();
+	}
+
+	private String read(String json, String... path) throws IOException {
+		return StreamingJson.readText(factory,
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), path);
+	}
+}
@@ -0,0 +1,75 @@
+package com.abhi.contract_explainer.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTests {
+
+	@Test
+	void spreadsKeysAcrossNodes() {
+		ConsistentHashRing ring = new ConsistentHashRing(128, List.of("a", "b", "c"));
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 3000; i++) {
+			counts.merge(ring.nodeFor("contract-" + i), 1, Integer::sum);
+		}
+
+		assertEquals(3, counts.size());
+		counts.values().forEach(count -> assertTrue(count > 600, "unbalanced: " + counts));
+	}
+
+	@Test
+	void addingNodeOnlyMovesKeysToTheNewNode() {
+		ConsistentHashRing ring = new ConsistentHashRing(128, List.of("a", "b"));
+		Map<String, String> before = new HashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			before.put("contract-" + i, ring.nodeFor("contract-" + i));
+		}
+
+		ring.addNode("c");
+
+		int moved = 0;
+		for (Map.Entry<String, String> entry : before.entrySet()) {
+			String owner = ring.nodeFor(entry.getKey());
+			if (!owner.equals(entry.getValue())) {
+				assertEquals("c", owner);
+				moved++;
+			}
+		}
+		assertTrue(moved > 200 && moved < 500, "moved " + moved);
+	}
+
+	@Test
+	void removingNodeGivesKeysBackToPreviousOwners() {
+		ConsistentHashRing ring = new ConsistentHashRing(128, List.of("a", "b"));
+		Map<String, String> before = new HashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			before.put("contract-" + i, ring.nodeFor("contract-" + i));
+		}
+
+		ring.addNode("c");
+		for (String key : before.keySet()) {
+			// Owner without "c" is the owner from before "c" joined
+			assertEquals(before.get(key), ring.nodeForExcluding(key, "c"));
+		}
+
+		assertTrue(ring.removeNode("c"));
+		assertFalse(ring.contains("c"));
+		assertFalse(ring.removeNode("c"));
+		before.forEach((key, owner) -> assertEquals(owner, ring.nodeFor(key)));
+	}
+
+	@Test
+	void nodeForExcludingTheOnlyNodeIsNull() {
+		ConsistentHashRing ring = new ConsistentHashRing(16, List.of("a"));
+		assertNull(ring.nodeForExcluding("contract-1", "a"));
+	}
+}
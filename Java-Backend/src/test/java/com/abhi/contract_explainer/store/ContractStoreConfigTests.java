@@ -0,0 +1,37 @@
+package com.abhi.contract_explainer.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContractStoreConfigTests {
+
+	private final ContractStoreConfig config = new ContractStoreConfig();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void localIsTheDefault() {
+		assertInstanceOf(InMemoryContractStore.class, config.contractStore(new MockEnvironment(), objectMapper));
+	}
+
+	@Test
+	void shardedModeIsPickedAtRuntime() {
+		MockEnvironment env = new MockEnvironment()
+				.withProperty("contract.store.mode", "sharded")
+				.withProperty("contract.store.sharded.self-url", "http://localhost:8081/")
+				.withProperty("contract.store.sharded.nodes", "http://localhost:8080,http://localhost:8081");
+
+		ShardedContractStore store = assertInstanceOf(ShardedContractStore.class, config.contractStore(env, objectMapper));
+		assertEquals("http://localhost:8081", store.getSelfUrl());
+	}
+
+	@Test
+	void unknownModeFailsFast() {
+		MockEnvironment env = new MockEnvironment().withProperty("contract.store.mode", "redis");
+		assertThrows(IllegalStateException.class, () -> config.contractStore(env, objectMapper));
+	}
+}
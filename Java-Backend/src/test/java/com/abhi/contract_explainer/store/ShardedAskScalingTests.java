@@ -0,0 +1,167 @@
+package com.abhi.contract_explainer.store;
+
+import com.abhi.contract_explainer.ContractExplainerApplication;
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scaling benchmark for /ask in sharded mode.
+ *
+ * Every node gets its own stub "Ollama" that takes STUB_LLM_MILLIS per call,
+ * and one LLM slot (llm.scheduler.max-concurrency=1), like one GPU per node.
+ * The same load is sent to clusters of 1, 2 and 3 nodes, spread round-robin;
+ * contracts are read through the sharded store, so most asks also do a
+ * remote lookup. Throughput should grow roughly with the node count.
+ *
+ * Timing-sensitive and slow (six app instances), so only run with -Pbenchmark.
+ */
+@Tag("benchmark")
+class ShardedAskScalingTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ShardedAskScalingTests.class);
+
+	private static final long STUB_LLM_MILLIS = 100;
+	private static final int REQUESTS = 30;
+	private static final int CLIENT_THREADS = 12;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void askThroughputGrowsWithNodeCount() throws Exception {
+		double oneNode = measure(1);
+		double twoNodes = measure(2);
+		double threeNodes = measure(3);
+
+		String result = String.format("/ask throughput with stub LLM (%d ms/call): 1 node %.1f req/s, "
+				+ "2 nodes %.1f req/s, 3 nodes %.1f req/s", STUB_LLM_MILLIS, oneNode, twoNodes, threeNodes);
+		log.info(result);
+
+		assertTrue(twoNodes > 1.4 * oneNode, result);
+		assertTrue(threeNodes > 1.8 * oneNode, result);
+	}
+
+	// Start a cluster of the given size, send REQUESTS asks, return requests per second
+	private double measure(int nodeCount) throws Exception {
+		List<Integer> ports = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			ports.add(freePort());
+		}
+		String nodes = ports.stream().map(port -> "http://localhost:" + port).collect(Collectors.joining(","));
+
+		List<HttpServer> stubs = new ArrayList<>();
+		List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+		ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+		try {
+			for (int port : ports) {
+				HttpServer stub = startStubLlm();
+				stubs.add(stub);
+				contexts.add(startNode(port, nodes, stub.getAddress().getPort()));
+			}
+
+			ShardedContractStore store = contexts.get(0).getBean(ShardedContractStore.class);
+			List<String> ids = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				ids.add(store.save(new StoredContract("contract " + i, List.of(
+						new Clause("clause-1", "Termination For Convenience",
+								"Either party may terminate this agreement with 30 days notice.")))));
+			}
+
+			// one warm-up ask per node
+			for (int i = 0; i < nodeCount; i++) {
+				assertEquals(200, ask(ports.get(i), ids.get(i)));
+			}
+
+			long start = System.nanoTime();
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < REQUESTS; i++) {
+				int port = ports.get(i % nodeCount);
+				String id = ids.get(i % ids.size());
+				results.add(clients.submit(() -> ask(port, id)));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(200, result.get());
+			}
+			double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+			return REQUESTS / seconds;
+		} finally {
+			clients.shutdownNow();
+			contexts.forEach(ConfigurableApplicationContext::close);
+			stubs.forEach(stub -> stub.stop(0));
+		}
+	}
+
+	private int ask(int port, String contractId) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder()
+				.uri(URI.create("http://localhost:" + port + "/api/contracts/" + contractId + "/ask"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"question\":\"How much notice do I need to give?\"}"))
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	// Answers every chat call after STUB_LLM_MILLIS, like a model with a fixed generation time
+	private static HttpServer startStubLlm() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/api/chat", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			try {
+				Thread.sleep(STUB_LLM_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = "{\"message\":{\"role\":\"assistant\",\"content\":\"stub answer\"}}"
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		return server;
+	}
+
+	private static ConfigurableApplicationContext startNode(int port, String nodes, int stubPort) {
+		return new SpringApplicationBuilder(ContractExplainerApplication.class)
+				.run("--server.port=" + port,
+						"--spring.devtools.restart.enabled=false",
+						"--contract.store.mode=sharded",
+						"--contract.store.sharded.self-url=http://localhost:" + port,
+						"--contract.store.sharded.nodes=" + nodes,
+						"--llm.scheduler.max-concurrency=1",
+						"--llm.ollama-url=http://127.0.0.1:" + stubPort + "/api/chat");
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
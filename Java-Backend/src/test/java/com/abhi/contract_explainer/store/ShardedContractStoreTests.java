@@ -0,0 +1,347 @@
+package com.abhi.contract_explainer.store;
+
+import com.abhi.contract_explainer.ContractExplainerApplication;
+import com.abhi.contract_explainer.model.Clause;
+import com.abhi.contract_explainer.model.ContractRevision;
+import com.abhi.contract_explainer.model.StoredContract;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs real app instances on one machine and checks forwarding, rebalancing
+ * and what happens when a listed node is down.
+ */
+class ShardedContractStoreTests {
+
+	@Test
+	void joiningNodeTakesOverItsShareAndEveryNodeCanReadEveryContract() throws Exception {
+		int portA = freePort();
+		int portB = freePort();
+		int portC = freePort();
+		String urlA = "http://localhost:" + portA;
+		String urlB = "http://localhost:" + portB;
+		// Documented setup: every node gets the full list. C is never started.
+		String nodes = urlA + "," + urlB + ",http://localhost:" + portC;
+
+		try (ConfigurableApplicationContext nodeA = startNode(portA, nodes)) {
+			ShardedContractStore storeA = nodeA.getBean(ShardedContractStore.class);
+			assertEquals(List.of(urlA), storeA.nodes());
+
+			List<String> ids = new ArrayList<>();
+			saveContracts(storeA, ids, 40);
+			assertEquals(40, storeA.localCount());
+
+			try (ConfigurableApplicationContext nodeB = startNode(portB, nodes)) {
+				ShardedContractStore storeB = nodeB.getBean(ShardedContractStore.class);
+
+				// Down node C never made it onto either ring
+				assertEquals(Set.of(urlA, urlB), Set.copyOf(storeA.nodes()));
+				assertEquals(Set.of(urlA, urlB), Set.copyOf(storeB.nodes()));
+
+				assertTrue(storeB.localCount() > 0, "nothing moved to the new node");
+				assertEquals(40, storeA.localCount() + storeB.localCount());
+
+				// Every save succeeds, wherever it lands
+				saveContracts(storeA, ids, 20);
+				saveContracts(storeB, ids, 20);
+				assertEquals(80, storeA.localCount() + storeB.localCount());
+
+				assertReadable(ids, storeA, storeB);
+
+				// Conditional update is checked on the owner, also when forwarded
+				String onB = ids.stream().filter(id -> urlB.equals(ownerOnRing(storeA, id))).findFirst().orElseThrow();
+				StoredContract v1 = storeA.getById(onB);
+				StoredContract v2 = new StoredContract(v1.getFullText(), v1.getClauses());
+				v2.setVersion(2);
+				v2.setRevisions(List.of(new ContractRevision(1, v1.getClauses(), "v1 summary")));
+				assertTrue(storeA.updateIfVersion(onB, 1, v2));
+				assertFalse(storeA.updateIfVersion(onB, 1, v2));
+				assertEquals(2, storeB.getById(onB).getVersion());
+
+				// Remote reads carry the history only when asked for
+				assertEquals(0, storeA.getById(onB).getRevisions().size());
+				assertEquals(1, storeA.getWithHistory(onB).getRevisions().size());
+
+				// A write sent to a node that does not own the contract is passed on to the owner...
+				String sentToA = ids.stream().filter(id -> urlB.equals(ownerOnRing(storeA, id))).skip(1)
+						.findFirst().orElseThrow();
+				assertEquals(200, putInternal(urlA, sentToA, ""));
+				assertNull(storeA.getLocal(sentToA));
+				assertEquals("moved", storeB.getLocal(sentToA).getFullText());
+				// ...but only once: a write that was already passed on is refused
+				assertEquals(421, putInternal(urlA, sentToA, "?forwarded=true"));
+			}
+
+			// B went away: writes to it fail until the health check takes it off the ring
+			String onB = ids.stream().filter(id -> urlB.equals(ownerOnRing(storeA, id))).findFirst().orElseThrow();
+			assertThrows(StoreUnavailableException.class, () -> storeA.getById(onB));
+			assertThrows(StoreUnavailableException.class, () -> storeA.update(onB, storeA.getById(ids.get(0))));
+			assertEquals(Set.of(urlA, urlB), Set.copyOf(storeA.nodes()));
+			storeA.joinPeers();
+
+			List<String> afterB = new ArrayList<>();
+			saveContracts(storeA, afterB, 40);
+			assertEquals(List.of(urlA), storeA.nodes());
+			assertReadable(afterB, storeA);
+		}
+	}
+
+	@Test
+	void newNodeServesContractsWhoseHandoverHasNotFinished() throws Exception {
+		int portA = freePort();
+		int portB = freePort();
+		String urlA = "http://localhost:" + portA;
+		String urlB = "http://localhost:" + portB;
+		String nodes = urlA + "," + urlB;
+
+		try (ConfigurableApplicationContext nodeA = startNode(portA, nodes)) {
+			ShardedContractStore storeA = nodeA.getBean(ShardedContractStore.class);
+			List<String> ids = new ArrayList<>();
+			saveContracts(storeA, ids, 40);
+
+			// B requires a secret that A does not send, so A's handover to B fails
+			// and B is left with a join in progress
+			try (ConfigurableApplicationContext nodeB = startNode(portB, nodes,
+					"--contract.store.sharded.secret=only-b-knows")) {
+				ShardedContractStore storeB = nodeB.getBean(ShardedContractStore.class);
+
+				assertEquals(0, storeB.localCount());
+				assertEquals(40, storeA.localCount());
+				assertEquals(Set.of(urlA, urlB), Set.copyOf(storeB.nodes()));
+
+				// Contracts B owns by the ring are still served from A, the previous owner
+				assertTrue(ids.stream().anyMatch(id -> urlB.equals(ownerOnRing(storeB, id))));
+				assertReadable(ids, storeA, storeB);
+
+				// And B's internal endpoints reject callers without the secret
+				HttpResponse<Void> response = HttpClient.newHttpClient().send(
+						HttpRequest.newBuilder(URI.create(urlB + "/internal/cluster/nodes")).GET().build(),
+						HttpResponse.BodyHandlers.discarding());
+				assertEquals(403, response.statusCode());
+			}
+		}
+	}
+
+	@Test
+	void failedRequestsDoNotTakeAHealthyPeerOffTheRing() throws Exception {
+		try (StubPeer peer = new StubPeer()) {
+			String self = "http://localhost:" + freePort(); // never contacted by the peer
+			ShardedContractStore store = new ShardedContractStore(new ObjectMapper(), self,
+					self + "," + peer.url, 128, "", 10, 5);
+			store.joinPeers();
+			assertEquals(Set.of(self, peer.url), Set.copyOf(store.nodes()));
+
+			String onPeer = idOwnedBy(store, peer.url);
+			StoredContract contract = new StoredContract("contract", List.of());
+
+			// One dropped connection: the write is retried and goes through
+			peer.dropRequests.set(1);
+			store.update(onPeer, contract);
+			assertTrue(peer.contracts.containsKey(onPeer));
+
+			// The peer keeps failing: the request fails, but the contract is not "not found"
+			// and the peer stays on the ring
+			peer.dropRequests.set(Integer.MAX_VALUE);
+			assertThrows(StoreUnavailableException.class, () -> store.getById(onPeer));
+			assertThrows(StoreUnavailableException.class, () -> store.update(onPeer, contract));
+			assertEquals(Set.of(self, peer.url), Set.copyOf(store.nodes()));
+			assertEquals(0, store.localCount());
+
+			// Only the health check takes it off the ring; its share is then stored here
+			peer.up.set(false);
+			store.joinPeers();
+			assertEquals(List.of(self), store.nodes());
+			List<String> ids = new ArrayList<>();
+			saveContracts(store, ids, 30);
+			assertEquals(30, store.localCount());
+
+			// Back again: re-joined, and the contracts it owns are handed over to it
+			peer.up.set(true);
+			peer.dropRequests.set(0);
+			store.joinPeers();
+			assertEquals(Set.of(self, peer.url), Set.copyOf(store.nodes()));
+			long owned = ids.stream().filter(id -> peer.url.equals(ownerOnRing(store, id))).count();
+			assertTrue(owned > 0);
+			assertEquals(30 - owned, store.localCount());
+			assertTrue(ids.stream().filter(id -> peer.url.equals(ownerOnRing(store, id)))
+					.allMatch(peer.contracts::containsKey));
+		}
+	}
+
+	@Test
+	void hangingPeerFailsTheRequestAfterTheTimeout() throws Exception {
+		try (StubPeer peer = new StubPeer()) {
+			String self = "http://localhost:" + freePort();
+			ShardedContractStore store = new ShardedContractStore(new ObjectMapper(), self,
+					self + "," + peer.url, 128, "", 10, 1);
+			store.joinPeers();
+			String onPeer = idOwnedBy(store, peer.url);
+
+			// Accepts the connection, never answers
+			peer.hang.set(true);
+			long start = System.nanoTime();
+			assertThrows(StoreUnavailableException.class, () -> store.getById(onPeer));
+			long seconds = (System.nanoTime() - start) / 1_000_000_000;
+			// two attempts of 1 s each
+			assertTrue(seconds < 5, "took " + seconds + " s");
+		}
+	}
+
+	private static void saveContracts(ShardedContractStore store, List<String> ids, int count) {
+		for (int i = 0; i < count; i++) {
+			int n = ids.size();
+			ids.add(store.save(new StoredContract("contract " + n,
+					List.of(new Clause("clause-1", "Termination", "text " + n)))));
+		}
+	}
+
+	private static void assertReadable(List<String> ids, ShardedContractStore... stores) {
+		for (int i = 0; i < ids.size(); i++) {
+			for (ShardedContractStore store : stores) {
+				StoredContract contract = store.getById(ids.get(i));
+				assertNotNull(contract, "contract " + i + " not found via " + store.getSelfUrl());
+				assertEquals("contract " + i, contract.getFullText());
+			}
+		}
+	}
+
+	private static String ownerOnRing(ShardedContractStore store, String contractId) {
+		return new ConsistentHashRing(128, store.nodes()).nodeFor(contractId);
+	}
+
+	private static String idOwnedBy(ShardedContractStore store, String node) {
+		while (true) {
+			String id = UUID.randomUUID().toString();
+			if (node.equals(ownerOnRing(store, id))) {
+				return id;
+			}
+		}
+	}
+
+	// PUT straight to a node's /internal endpoint, as another node would
+	private static int putInternal(String node, String contractId, String query) throws Exception {
+		HttpResponse<Void> response = HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create(node + "/internal/contracts/" + contractId + query))
+						.header("Content-Type", "application/json")
+						.PUT(HttpRequest.BodyPublishers.ofString("{\"fullText\":\"moved\",\"clauses\":[]}"))
+						.build(),
+				HttpResponse.BodyHandlers.discarding());
+		return response.statusCode();
+	}
+
+	private static ConfigurableApplicationContext startNode(int port, String nodes, String... extraArgs) {
+		String self = "http://localhost:" + port;
+		String[] args = Stream.concat(Stream.of(
+						"--server.port=" + port,
+						"--spring.devtools.restart.enabled=false",
+						"--contract.store.mode=sharded",
+						"--contract.store.sharded.self-url=" + self,
+						"--contract.store.sharded.nodes=" + nodes,
+						// health checks are run by the tests themselves (joinPeers)
+						"--contract.store.sharded.rejoin-interval-seconds=3600"),
+				Stream.of(extraArgs)).toArray(String[]::new);
+		return new SpringApplicationBuilder(ContractExplainerApplication.class).run(args);
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	/**
+	 * Stands in for another node: answers the health check and join while up,
+	 * keeps what is PUT to it, and can drop contract requests without answering.
+	 */
+	private static class StubPeer implements AutoCloseable {
+
+		final AtomicBoolean up = new AtomicBoolean(true);
+		final AtomicInteger dropRequests = new AtomicInteger();
+		final AtomicBoolean hang = new AtomicBoolean();
+		final CountDownLatch closed = new CountDownLatch(1);
+		final Map<String, byte[]> contracts = new ConcurrentHashMap<>();
+		final HttpServer server;
+		final String url;
+
+		StubPeer() throws IOException {
+			server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.createContext("/internal/cluster", exchange -> {
+				exchange.getRequestBody().readAllBytes();
+				respond(exchange, up.get() ? 200 : 503, "{}".getBytes(StandardCharsets.UTF_8));
+			});
+			server.createContext("/internal/contracts/", exchange -> {
+				byte[] body = exchange.getRequestBody().readAllBytes();
+				if (hang.get()) {
+					try {
+						closed.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				if (dropRequests.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+					// Close the connection without a response: an IOException for the caller
+					exchange.close();
+					return;
+				}
+				String id = exchange.getRequestURI().getPath().substring("/internal/contracts/".length());
+				if ("PUT".equals(exchange.getRequestMethod())) {
+					contracts.put(id, body);
+					respond(exchange, 200, new byte[0]);
+				} else if (contracts.containsKey(id)) {
+					respond(exchange, 200, contracts.get(id));
+				} else {
+					respond(exchange, 404, new byte[0]);
+				}
+			});
+			server.start();
+			url = "http://localhost:" + server.getAddress().getPort();
+		}
+
+		private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+
+		@Override
+		public void close() {
+			closed.countDown();
+			server.stop(0);
+		}
+	}
+}